@@ -0,0 +1,88 @@
+package com.moh.yehia.testing.benchmark;
+
+import com.moh.yehia.testing.config.ProductProperties;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.repository.CategorySummaryRepository;
+import com.moh.yehia.testing.repository.ProductRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import com.moh.yehia.testing.service.design.CategorySummaryService;
+import com.moh.yehia.testing.service.design.ProductWriter;
+import com.moh.yehia.testing.service.impl.CategorySummaryServiceImpl;
+import com.moh.yehia.testing.service.impl.CoalescingProductWriter;
+import com.moh.yehia.testing.service.impl.InMemoryCategoryIdRegistry;
+import com.moh.yehia.testing.service.impl.InMemoryProductNameIndex;
+import com.moh.yehia.testing.service.impl.ObjectIdGenerator;
+import com.moh.yehia.testing.service.impl.ProductServiceImpl;
+import jakarta.validation.Validation;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+final class BenchmarkFixtures {
+    static final String CATEGORY_ID = UUID.randomUUID().toString();
+
+    private BenchmarkFixtures() {
+    }
+
+    static Product product(int index) {
+        return Product.builder()
+                .id(UUID.randomUUID().toString())
+                .name("Product " + index)
+                .description("Description of product " + index)
+                .price(new BigDecimal("19.99"))
+                .stock(index + 1)
+                .categoryId(UUID.randomUUID().toString())
+                .build();
+    }
+
+    static List<Product> products(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    static ProductRequest productRequest() {
+        return new ProductRequest("Product", "Description of product", new BigDecimal("19.99"), CATEGORY_ID, 10);
+    }
+
+    // keeps the database out of the measurement, save echoes its argument and findById returns the given product
+    static ProductRepository inMemoryRepository(Product product) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(), new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> args[0];
+                    case "findById" -> Optional.of(product);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static ProductServiceImpl productService(ProductRepository productRepository) {
+        return productService(productRepository, new CoalescingProductWriter(productRepository, new ProductProperties()));
+    }
+
+    static ProductServiceImpl productService(ProductRepository productRepository, ProductWriter productWriter) {
+        return new ProductServiceImpl(productRepository, Validation.buildDefaultValidatorFactory().getValidator(), new ProductProperties(), new ObjectIdGenerator(), new InMemoryProductNameIndex(productRepository, Runnable::run), categoryIdRegistry(), categorySummaryService(), productWriter);
+    }
+
+    // the category of productRequest() is known up front, so saving never falls back to the database
+    private static CategoryIdRegistry categoryIdRegistry() {
+        CategoryIdRegistry categoryIdRegistry = new InMemoryCategoryIdRegistry(null, Runnable::run);
+        categoryIdRegistry.register(CATEGORY_ID);
+        return categoryIdRegistry;
+    }
+
+    // summary increments go nowhere, the benchmarks measure the product write path only
+    private static CategorySummaryService categorySummaryService() {
+        CategorySummaryRepository categorySummaryRepository = (CategorySummaryRepository) Proxy.newProxyInstance(
+                CategorySummaryRepository.class.getClassLoader(),
+                new Class<?>[]{CategorySummaryRepository.class},
+                (proxy, method, args) -> null);
+        return new CategorySummaryServiceImpl(categorySummaryRepository);
+    }
+}
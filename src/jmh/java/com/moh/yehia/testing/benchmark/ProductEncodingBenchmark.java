@@ -0,0 +1,68 @@
+package com.moh.yehia.testing.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.moh.yehia.testing.config.ObjectMapperConfig;
+import com.moh.yehia.testing.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization CPU of a product listing per wire format, the encoded and gzipped sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductEncodingBenchmark {
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader listReader;
+    private List<Product> products;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapperConfig config = new ObjectMapperConfig();
+        objectMapper = switch (format) {
+            case "json" -> config.objectMapper();
+            case "cbor" -> config.cborHttpMessageConverter().getObjectMapper();
+            case "smile" -> config.smileHttpMessageConverter().getObjectMapper();
+            default -> throw new IllegalArgumentException(format);
+        };
+        listReader = objectMapper.readerForListOf(Product.class);
+        products = BenchmarkFixtures.products(size);
+        encoded = objectMapper.writeValueAsBytes(products);
+        System.out.printf("%n%s, %d products: %d bytes, %d bytes gzipped%n", format, size, encoded.length, gzippedSize(encoded));
+    }
+
+    @Benchmark
+    public byte[] serializeProductList() throws IOException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public List<Product> deserializeProductList() throws IOException {
+        return listReader.readValue(encoded);
+    }
+
+    private static int gzippedSize(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(outputStream)) {
+            gzip.write(bytes);
+        }
+        return outputStream.size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.moh.yehia.testing.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.moh.yehia.testing.config.ObjectMapperConfig;
+import com.moh.yehia.testing.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSerializationBenchmark {
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    // both profiles use typed writers and the application mapper settings, plain only leaves out the Blackbird module
+    @Param({"plain", "optimized"})
+    private String profile;
+
+    private ObjectWriter productWriter;
+    private ObjectWriter productListWriter;
+    private ObjectReader productReader;
+    private Product product;
+    private List<Product> products;
+    private String productJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper configured = new ObjectMapperConfig().objectMapper();
+        ObjectMapper objectMapper = profile.equals("plain") ? withoutBlackbird(configured) : configured;
+        productWriter = objectMapper.writerFor(Product.class);
+        productListWriter = objectMapper.writerFor(new TypeReference<List<Product>>() {
+        });
+        productReader = objectMapper.readerFor(Product.class);
+        products = BenchmarkFixtures.products(size);
+        product = products.get(0);
+        productJson = productWriter.writeValueAsString(product);
+    }
+
+    // modules cannot be unregistered, so the mapper is rebuilt with the field filter of the configured one
+    private static ObjectMapper withoutBlackbird(ObjectMapper configured) {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .addMixIn(Product.class, configured.findMixInClassFor(Product.class))
+                .setFilterProvider(configured.getSerializationConfig().getFilterProvider());
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws JsonProcessingException {
+        return productWriter.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializeProductList() throws JsonProcessingException {
+        return productListWriter.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public Product deserializeProduct() throws JsonProcessingException {
+        return productReader.readValue(productJson);
+    }
+}
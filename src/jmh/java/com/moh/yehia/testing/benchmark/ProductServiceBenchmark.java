@@ -0,0 +1,55 @@
+package com.moh.yehia.testing.benchmark;
+
+import com.moh.yehia.testing.aop.AppLogger;
+import com.moh.yehia.testing.config.TimingProperties;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.service.design.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the save path (request mapping, id generation) and the overhead the AppLogger aspect adds per call,
+ * against a repository that never touches the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+    private ProductService productService;
+    private ProductService timedProductService;
+    private ProductRequest productRequest;
+    private String productId;
+
+    @Setup
+    public void setUp() {
+        Product product = BenchmarkFixtures.product(0);
+        productId = product.getId();
+        productRequest = BenchmarkFixtures.productRequest();
+        productService = BenchmarkFixtures.productService(BenchmarkFixtures.inMemoryRepository(product));
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(productService);
+        proxyFactory.addAspect(new AppLogger(new SimpleMeterRegistry(), new TimingProperties()));
+        timedProductService = proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public Product save() {
+        return productService.save(productRequest);
+    }
+
+    @Benchmark
+    public Product findById() {
+        return productService.findById(productId);
+    }
+
+    @Benchmark
+    public Product findByIdWithTiming() {
+        return timedProductService.findById(productId);
+    }
+}
@@ -0,0 +1,39 @@
+package com.moh.yehia.testing.benchmark;
+
+import com.moh.yehia.testing.model.ProductRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductValidationBenchmark {
+    private Validator validator;
+    private ProductRequest validRequest;
+    private ProductRequest invalidRequest;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        validRequest = BenchmarkFixtures.productRequest();
+        invalidRequest = new ProductRequest("", "", null, "", 0);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductRequest>> validateValidRequest() {
+        return validator.validate(validRequest);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductRequest>> validateInvalidRequest() {
+        return validator.validate(invalidRequest);
+    }
+}
@@ -0,0 +1,88 @@
+package com.moh.yehia.testing.benchmark;
+
+import com.moh.yehia.testing.config.ProductProperties;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.repository.ProductRepository;
+import com.moh.yehia.testing.service.design.ProductService;
+import com.moh.yehia.testing.service.impl.CoalescingProductWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Concurrent single product saves with and without write coalescing. The repository stands in for Mongo with a
+ * fixed round trip per command, a small cost per document and a connection pool smaller than the number of callers,
+ * which is what makes one round trip per save queue up under load. Throughput mode gives saves per second,
+ * sample mode gives the p99 of a single save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class ProductWriteCoalescingBenchmark {
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final long PER_DOCUMENT_NANOS = TimeUnit.MICROSECONDS.toNanos(5);
+
+    @Param({"false", "true"})
+    private boolean coalesce;
+
+    @Param({"8"})
+    private int connections;
+
+    private CoalescingProductWriter productWriter;
+    private ProductService productService;
+    private ProductRequest productRequest;
+
+    @Setup
+    public void setUp() {
+        ProductProperties productProperties = new ProductProperties();
+        productProperties.getCoalesce().setEnabled(coalesce);
+        ProductRepository productRepository = remoteRepository(new Semaphore(connections));
+        productWriter = new CoalescingProductWriter(productRepository, productProperties);
+        productService = BenchmarkFixtures.productService(productRepository, productWriter);
+        productRequest = BenchmarkFixtures.productRequest();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        productWriter.close();
+    }
+
+    @Benchmark
+    public Product save() {
+        return productService.save(productRequest);
+    }
+
+    private static ProductRepository remoteRepository(Semaphore connectionPool) {
+        return (ProductRepository) Proxy.newProxyInstance(ProductRepository.class.getClassLoader(), new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        roundTrip(connectionPool, 1);
+                        yield args[0];
+                    }
+                    case "bulkInsert" -> {
+                        roundTrip(connectionPool, ((List<?>) args[0]).size());
+                        yield Map.of();
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static void roundTrip(Semaphore connectionPool, int documents) throws InterruptedException {
+        connectionPool.acquire();
+        try {
+            LockSupport.parkNanos(ROUND_TRIP_NANOS + documents * PER_DOCUMENT_NANOS);
+        } finally {
+            connectionPool.release();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.moh.yehia.testing.benchmark.mongo;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares random UUID string ids with time ordered ObjectIds on insert throughput and {@code _id} index size.
+ * Needs a running Mongo, run with:
+ * {@code mvn -Pbenchmark verify -Djmh.includes=IdInsertBenchmark -Dmongo.uri=mongodb://localhost:27017}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IdInsertBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"uuid", "objectId"})
+    private String idType;
+
+    @Param({"10000000"})
+    private int documents;
+
+    private MongoClient mongoClient;
+    private MongoCollection<Document> collection;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        mongoClient = MongoClients.create(System.getProperty("mongo.uri", "mongodb://localhost:27017"));
+        collection = mongoClient.getDatabase("id_benchmark").getCollection("product_" + idType);
+        collection.drop();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        Document stats = mongoClient.getDatabase("id_benchmark").runCommand(new Document("collStats", collection.getNamespace().getCollectionName()));
+        Document indexSizes = stats.get("indexSizes", Document.class);
+        System.out.printf("%n%s: %d documents, _id index %d bytes, total index %d bytes, storage %d bytes%n",
+                idType, stats.get("count", Number.class).longValue(), indexSizes.get("_id_", Number.class).longValue(),
+                stats.get("totalIndexSize", Number.class).longValue(), stats.get("storageSize", Number.class).longValue());
+        collection.drop();
+        mongoClient.close();
+    }
+
+    @Benchmark
+    public int insert() {
+        InsertManyOptions options = new InsertManyOptions().ordered(false);
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < documents; i++) {
+            batch.add(new Document("_id", "uuid".equals(idType) ? UUID.randomUUID().toString() : new ObjectId())
+                    .append("name", "Product " + i)
+                    .append("description", "Description of product " + i)
+                    .append("price", "19.99")
+                    .append("stock", i % 100)
+                    .append("categoryId", "category-" + (i % 50)));
+            if (batch.size() == BATCH_SIZE) {
+                collection.insertMany(batch, options);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            collection.insertMany(batch, options);
+        }
+        return documents;
+    }
+}
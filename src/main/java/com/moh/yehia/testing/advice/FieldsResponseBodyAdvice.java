@@ -0,0 +1,36 @@
+package com.moh.yehia.testing.advice;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.moh.yehia.testing.config.ObjectMapperConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Serializes only the properties listed in the {@code fields} request parameter of the models mixed in with
+ * the {@link ObjectMapperConfig#FIELDS_FILTER} filter.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class FieldsResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+    static final String FIELDS_PARAMETER = "fields";
+
+    @Override
+    protected void beforeBodyWriteInternal(@NonNull MappingJacksonValue bodyContainer, @NonNull MediaType contentType, @NonNull MethodParameter returnType,
+                                           @NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response) {
+        String fields = ((ServletServerHttpRequest) request).getServletRequest().getParameter(FIELDS_PARAMETER);
+        if (StringUtils.hasText(fields)) {
+            bodyContainer.setFilters(new SimpleFilterProvider().addFilter(ObjectMapperConfig.FIELDS_FILTER,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(StringUtils.commaDelimitedListToSet(StringUtils.trimAllWhitespace(fields)))));
+        }
+    }
+}
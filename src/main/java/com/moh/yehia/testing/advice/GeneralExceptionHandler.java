@@ -1,9 +1,11 @@
 package com.moh.yehia.testing.advice;
 
+import com.moh.yehia.testing.exception.ConflictException;
 import com.moh.yehia.testing.exception.InvalidRequestException;
 import com.moh.yehia.testing.model.ApiError;
 import com.moh.yehia.testing.model.ValidationError;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -21,6 +23,7 @@ import java.util.List;
 
 @ControllerAdvice
 @Log4j2
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GeneralExceptionHandler extends ResponseEntityExceptionHandler {
     @ExceptionHandler(InvalidRequestException.class)
     public ResponseEntity<ApiError> handleInvalidRequest(InvalidRequestException e, WebRequest webRequest) {
@@ -31,6 +34,15 @@ public class GeneralExceptionHandler extends ResponseEntityExceptionHandler {
         );
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiError> handleConflict(ConflictException e, WebRequest webRequest) {
+        log.warn(e.getMessage());
+        return new ResponseEntity<>(
+                new ApiError("CONFLICT", e.getMessage(), webRequest.getDescription(false)),
+                HttpStatus.CONFLICT
+        );
+    }
+
 
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, @NonNull HttpHeaders headers, @NonNull HttpStatusCode httpStatusCode, WebRequest request) {
@@ -0,0 +1,50 @@
+package com.moh.yehia.testing.advice;
+
+import com.moh.yehia.testing.exception.ConflictException;
+import com.moh.yehia.testing.exception.InvalidRequestException;
+import com.moh.yehia.testing.model.ApiError;
+import com.moh.yehia.testing.model.ValidationError;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+
+@RestControllerAdvice
+@Log4j2
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ApiError> handleInvalidRequest(InvalidRequestException e, ServerWebExchange exchange) {
+        log.error(e.getMessage(), e);
+        return new ResponseEntity<>(
+                new ApiError("INVALID_REQUEST", e.getMessage(), describe(exchange)),
+                HttpStatus.BAD_REQUEST
+        );
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiError> handleConflict(ConflictException e, ServerWebExchange exchange) {
+        log.warn(e.getMessage());
+        return new ResponseEntity<>(
+                new ApiError("CONFLICT", e.getMessage(), describe(exchange)),
+                HttpStatus.CONFLICT
+        );
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ValidationError> handleMethodArgumentNotValid(WebExchangeBindException ex, ServerWebExchange exchange) {
+        ValidationError validationError = new ValidationError(describe(exchange), "Invalid Request Data, Your request is either missing required data or contains invalid values");
+        ex.getBindingResult().getFieldErrors().forEach(fieldError -> validationError.addError(fieldError.getField(), fieldError.getDefaultMessage()));
+        ex.getBindingResult().getGlobalErrors().forEach(globalError -> validationError.addError(globalError.getObjectName(), globalError.getDefaultMessage()));
+        return new ResponseEntity<>(validationError, HttpStatus.BAD_REQUEST);
+    }
+
+    // same format as the servlet WebRequest#getDescription(false)
+    private static String describe(ServerWebExchange exchange) {
+        return "uri=" + exchange.getRequest().getPath().value();
+    }
+}
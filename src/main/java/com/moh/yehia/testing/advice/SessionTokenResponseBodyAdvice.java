@@ -0,0 +1,42 @@
+package com.moh.yehia.testing.advice;
+
+import com.moh.yehia.testing.config.ReadRouting;
+import com.moh.yehia.testing.config.ReadRoutingInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Returns the session token of the request's writes before the body commits the response headers.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(value = "app.mongo.reads.secondary-enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class SessionTokenResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+    private final ReadRouting readRouting;
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType, @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, @NonNull MethodParameter returnType, @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response) {
+        String sessionToken = readRouting.sessionToken();
+        if (sessionToken != null) {
+            response.getHeaders().set(ReadRoutingInterceptor.SESSION_TOKEN_HEADER, sessionToken);
+        }
+        return body;
+    }
+}
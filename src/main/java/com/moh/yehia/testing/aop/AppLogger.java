@@ -1,48 +1,130 @@
 package com.moh.yehia.testing.aop;
 
+import com.moh.yehia.testing.config.TimingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.log4j.Log4j2;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StopWatch;
+import org.springframework.util.ClassUtils;
 
-import java.util.Arrays;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Aspect
 @Log4j2
 public class AppLogger {
-    @Around("execution(* com.moh.yehia.testing.controller..*.*(..))")
+    static final String TIMER_NAME = "app.method.duration";
+    private static final String BASE_PACKAGE = "com.moh.yehia.testing.";
+    static final int MAX_ARGUMENT_LENGTH = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final long slowCallThresholdNanos;
+    private final int argumentsSampleRate;
+    // keyed by target class first because repository methods are declared on shared Spring Data interfaces
+    private final Map<Class<?>, Map<Method, Timer>> timers = new ConcurrentHashMap<>();
+
+    public AppLogger(MeterRegistry meterRegistry, TimingProperties timingProperties) {
+        this.meterRegistry = meterRegistry;
+        this.slowCallThresholdNanos = timingProperties.getSlowCallThreshold().toNanos();
+        this.argumentsSampleRate = timingProperties.getArgumentsSampleRate();
+    }
+
+    // reactive components only assemble publishers, timing them would measure nothing useful.
+    // The negated this() stays inside the repository branch: Spring AOP resolves it as a runtime residue and
+    // would otherwise reject every controller and service class at proxy creation time.
+    @Around("(within(com.moh.yehia.testing.controller..*) " +
+            "|| within(com.moh.yehia.testing.service..*) " +
+            "|| (this(org.springframework.data.repository.Repository) " +
+            "&& !this(org.springframework.data.repository.reactive.ReactiveCrudRepository))) " +
+            "&& !within(com.moh.yehia.testing.controller.reactive..*) " +
+            "&& !within(com.moh.yehia.testing.service.impl.Reactive*)")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        logMethodStatus(joinPoint, "start");
-        logMethodArguments(joinPoint);
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        Object returnedValue = joinPoint.proceed();
-        stopWatch.stop();
-        logMethodExecutionTime(joinPoint, stopWatch.getTotalTimeMillis());
-        logMethodStatus(joinPoint, "end");
-        return returnedValue;
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Class<?> type = joinPoint.getTarget().getClass();
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            timer(type, method).record(elapsed, TimeUnit.NANOSECONDS);
+            if (elapsed >= slowCallThresholdNanos) {
+                log.warn("{} :: {} :: slow call took {} ms with arguments = {}",
+                        componentName(type), method.getName(), TimeUnit.NANOSECONDS.toMillis(elapsed), describeArguments(joinPoint.getArgs()));
+            } else if (argumentsSampleRate > 0 && ThreadLocalRandom.current().nextInt(argumentsSampleRate) == 0) {
+                log.info("{} :: {} :: sampled call took {} ms with arguments = {}",
+                        componentName(type), method.getName(), TimeUnit.NANOSECONDS.toMillis(elapsed), describeArguments(joinPoint.getArgs()));
+            }
+        }
+    }
+
+    // a batch or an export can pass thousands of products, the log gets their type and size instead of every element
+    static String describeArguments(Object[] args) {
+        StringJoiner description = new StringJoiner(", ", "[", "]");
+        for (Object arg : args) {
+            description.add(describeArgument(arg));
+        }
+        return description.toString();
+    }
+
+    private static String describeArgument(Object arg) {
+        if (arg instanceof Collection<?> collection) {
+            return arg.getClass().getSimpleName() + "(size=" + collection.size() + ")";
+        }
+        if (arg instanceof Map<?, ?> map) {
+            return arg.getClass().getSimpleName() + "(size=" + map.size() + ")";
+        }
+        if (arg != null && arg.getClass().isArray()) {
+            return arg.getClass().getSimpleName() + "(length=" + Array.getLength(arg) + ")";
+        }
+        String value = String.valueOf(arg);
+        return value.length() <= MAX_ARGUMENT_LENGTH ? value : value.substring(0, MAX_ARGUMENT_LENGTH) + "...";
     }
 
-    private void logMethodStatus(ProceedingJoinPoint joinPoint, String status) {
-        log.info("{} :: {} :: {}",
-                joinPoint.getTarget().getClass().getName(),
-                joinPoint.getSignature().getName(),
-                status);
+    private Timer timer(Class<?> type, Method method) {
+        Map<Method, Timer> methodTimers = timers.get(type);
+        if (methodTimers == null) {
+            methodTimers = timers.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+        }
+        Timer timer = methodTimers.get(method);
+        if (timer == null) {
+            timer = methodTimers.computeIfAbsent(method, key -> createTimer(type, key));
+        }
+        return timer;
     }
 
-    private void logMethodArguments(ProceedingJoinPoint joinPoint) {
-        log.info("executing function {} with arguments = {}",
-                joinPoint.getSignature().getName(),
-                Arrays.toString(joinPoint.getArgs()));
+    private Timer createTimer(Class<?> type, Method method) {
+        String componentName = componentName(type);
+        String layer = componentName.substring(0, Math.max(componentName.indexOf('.'), 0));
+        return Timer.builder(TIMER_NAME)
+                .description("Execution time of application controller, service and repository methods")
+                .tag("layer", layer)
+                .tag("class", componentName.substring(componentName.lastIndexOf('.') + 1))
+                .tag("method", method.getName())
+                .register(meterRegistry);
     }
 
-    private void logMethodExecutionTime(ProceedingJoinPoint joinPoint, long executionTime) {
-        log.info("{} :: {} :: execution time is =>{} ms",
-                joinPoint.getTarget().getClass().getName(),
-                joinPoint.getSignature().getName(),
-                executionTime);
+    private static String componentName(Class<?> type) {
+        if (Proxy.isProxyClass(type)) {
+            // Spring Data repositories are JDK proxies of the application interface
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (candidate.getName().startsWith(BASE_PACKAGE)) {
+                    return candidate.getName().substring(BASE_PACKAGE.length());
+                }
+            }
+        }
+        String userTypeName = ClassUtils.getUserClass(type).getName();
+        return userTypeName.startsWith(BASE_PACKAGE) ? userTypeName.substring(BASE_PACKAGE.length()) : userTypeName;
     }
 }
@@ -0,0 +1,19 @@
+package com.moh.yehia.testing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache-sync")
+public class CacheSyncProperties {
+    // needs a replica set, change streams are not available on a standalone server
+    private boolean enabled = false;
+    // key of the stored resume token, a restarted container of the same pod continues where it stopped
+    private String consumerId = "local";
+    // how long one poll of the change stream waits for events before checking for shutdown
+    private Duration maxAwaitTime = Duration.ofSeconds(1);
+    // replaying already applied events is harmless, so the resume token is stored at most this often
+    private Duration tokenSaveInterval = Duration.ofSeconds(5);
+}
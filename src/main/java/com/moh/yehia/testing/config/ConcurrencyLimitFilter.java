@@ -0,0 +1,141 @@
+package com.moh.yehia.testing.config;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.moh.yehia.testing.model.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds requests beyond the adaptive concurrency limit right away with 503 and Retry-After, instead of letting
+ * them queue in Tomcat until every caller times out. Reads and writes have separate limits, so a burst of slow
+ * writes cannot starve the catalog reads.
+ */
+@Log4j2
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    static final String LIMIT_GAUGE_NAME = "app.concurrency.limit";
+    static final String IN_FLIGHT_GAUGE_NAME = "app.concurrency.in.flight";
+    static final String REJECTED_COUNTER_NAME = "app.concurrency.rejected";
+    private static final String READ = "read";
+    private static final String WRITE = "write";
+
+    private final GradientConcurrencyLimit readLimit;
+    private final GradientConcurrencyLimit writeLimit;
+    private final Counter rejectedReads;
+    private final Counter rejectedWrites;
+    private final String retryAfterSeconds;
+    private final ObjectWriter apiErrorWriter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties concurrencyLimitProperties, MeterRegistry meterRegistry, ModelCodecs modelCodecs) {
+        this.readLimit = new GradientConcurrencyLimit(concurrencyLimitProperties.getReads());
+        this.writeLimit = new GradientConcurrencyLimit(concurrencyLimitProperties.getWrites());
+        this.rejectedReads = register(meterRegistry, READ, readLimit);
+        this.rejectedWrites = register(meterRegistry, WRITE, writeLimit);
+        // Retry-After is whole seconds, rounded up so clients never come back earlier than asked
+        this.retryAfterSeconds = String.valueOf(Math.max(1, (concurrencyLimitProperties.getRetryAfter().toMillis() + 999) / 1000));
+        this.apiErrorWriter = modelCodecs.getApiErrorWriter();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        GradientConcurrencyLimit limit = read ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            (read ? rejectedReads : rejectedWrites).increment();
+            reject(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (request.isAsyncStarted()) {
+                // streamed and deferred responses hold their permit until they are done, their duration is the
+                // client's reading speed rather than our latency, so it is not sampled
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(limit));
+            } else if (completed && response.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                limit.release(System.nanoTime() - start);
+            } else {
+                limit.releaseWithoutSample();
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // shedding happens in bursts under overload, the rejected counter is what tells how much was shed
+        log.debug("Shedding {} {}, the concurrency limit is reached", request.getMethod(), request.getRequestURI());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        apiErrorWriter.writeValue(response.getOutputStream(), new ApiError("SERVICE_UNAVAILABLE",
+                "Too many concurrent requests, retry later", "uri=" + request.getRequestURI()));
+    }
+
+    private static Counter register(MeterRegistry meterRegistry, String kind, GradientConcurrencyLimit limit) {
+        Gauge.builder(LIMIT_GAUGE_NAME, limit, GradientConcurrencyLimit::getLimit)
+                .description("Adaptive limit of concurrent API requests")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE_NAME, limit, GradientConcurrencyLimit::getInFlight)
+                .description("API requests currently holding a concurrency permit")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        return Counter.builder(REJECTED_COUNTER_NAME)
+                .description("API requests shed with 503 because the concurrency limit was reached")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    @RequiredArgsConstructor
+    private static class ReleasingAsyncListener implements AsyncListener {
+        private final GradientConcurrencyLimit limit;
+        // a timeout or an error is followed by the completion of the same request
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.releaseWithoutSample();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.moh.yehia.testing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+    // sent as Retry-After with every shed request
+    private Duration retryAfter = Duration.ofSeconds(1);
+    private Limit reads = new Limit(50, 10, 1_000);
+    private Limit writes = new Limit(20, 4, 200);
+
+    @Data
+    public static class Limit {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        // weight of each new estimate, lower reacts slower but rides out single slow requests
+        private double smoothing = 0.2;
+        // latency may grow this much over the long term average before the limit shrinks
+        private double rttTolerance = 1.5;
+
+        public Limit() {
+        }
+
+        Limit(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+}
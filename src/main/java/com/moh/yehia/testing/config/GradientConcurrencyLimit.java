@@ -0,0 +1,90 @@
+package com.moh.yehia.testing.config;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit derived from latency, after the gradient algorithm of Netflix's concurrency-limits. The ratio of
+ * the long term average latency to the latest one is the gradient: while latency stays near its average the limit
+ * grows by its square root, once requests start queueing latency rises, the gradient drops below one and the limit
+ * shrinks toward what the system handles without queueing.
+ */
+public class GradientConcurrencyLimit {
+    // the long term average spans roughly the last 600 samples
+    private static final double LONG_RTT_ALPHA = 2.0 / 601;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    // guarded by this
+    private double estimatedLimit;
+    private double longRtt;
+
+    public GradientConcurrencyLimit(ConcurrencyLimitProperties.Limit properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.smoothing = properties.getSmoothing();
+        this.rttTolerance = properties.getRttTolerance();
+        this.estimatedLimit = properties.getInitialLimit();
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * @return whether the request may run, every acquired permit must be released
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit and feeds the latency of its request into the limit.
+     */
+    public void release(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        if (rttNanos > 0) {
+            update(rttNanos, inFlightAtCompletion);
+        }
+    }
+
+    /**
+     * Releases a permit whose request failed, its latency says nothing about the capacity.
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rtt, int inFlightAtCompletion) {
+        longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) * LONG_RTT_ALPHA;
+        // after a burst the average stays high for a long time, pull it down so the next rise is noticed
+        if (longRtt > 2 * rtt) {
+            longRtt = longRtt * 0.95;
+        }
+        // the limit only grows while it is what holds requests back, an idle service keeps its limit
+        if (inFlightAtCompletion < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRtt / rtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - smoothing) + newLimit * smoothing));
+        limit = (int) estimatedLimit;
+    }
+}
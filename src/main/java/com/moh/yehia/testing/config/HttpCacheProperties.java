@@ -0,0 +1,15 @@
+package com.moh.yehia.testing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.http-cache")
+public class HttpCacheProperties {
+    // categories rarely change, clients may reuse them for a while before revalidating
+    private Duration categoriesMaxAge = Duration.ofMinutes(1);
+    // stock moves constantly, zero makes clients revalidate every read against the ETag
+    private Duration productsMaxAge = Duration.ZERO;
+}
@@ -0,0 +1,27 @@
+package com.moh.yehia.testing.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.moh.yehia.testing.model.ApiError;
+import com.moh.yehia.testing.model.Product;
+import lombok.Getter;
+
+/**
+ * Writers of the API models the application serializes itself, outside the message converters, resolved once at
+ * startup. Resolving them also fills the serializer cache of the shared mapper, so the first requests do not pay
+ * for the bean introspection.
+ */
+@Getter
+public class ModelCodecs {
+    // one document per line for NDJSON streams, the servlet stream is flushed by its own buffer rather than per document
+    private final ObjectWriter productNdjsonWriter;
+    private final ObjectWriter apiErrorWriter;
+
+    public ModelCodecs(ObjectMapper objectMapper) {
+        productNdjsonWriter = objectMapper.writerFor(Product.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        apiErrorWriter = objectMapper.writerFor(ApiError.class);
+    }
+}
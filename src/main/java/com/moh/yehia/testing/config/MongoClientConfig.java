@@ -0,0 +1,49 @@
+package com.moh.yehia.testing.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool settings and monitoring shared by the blocking and the reactive Mongo clients. Command latency itself is
+ * published by Spring Boot as mongodb.driver.commands, the monitor adds the connection checkout wait and the
+ * slow command log.
+ */
+@Configuration
+public class MongoClientConfig {
+
+    @Bean
+    public MongoCommandMonitor mongoCommandMonitor(MeterRegistry meterRegistry, MongoClientProperties mongoClientProperties) {
+        return new MongoCommandMonitor(meterRegistry, mongoClientProperties.getSlowCommandThreshold());
+    }
+
+    // runs after the customizer applying spring.data.mongodb.uri, so a pool value set here wins over the uri option
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public MongoClientSettingsBuilderCustomizer mongoClientSettingsCustomizer(MongoClientProperties mongoClientProperties,
+                                                                               MongoCommandMonitor mongoCommandMonitor) {
+        MongoClientProperties.Pool pool = mongoClientProperties.getPool();
+        return builder -> builder
+                .applyToConnectionPoolSettings(settings -> {
+                    PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+                    map.from(pool::getMaxSize).to(settings::maxSize);
+                    map.from(pool::getMinSize).to(settings::minSize);
+                    map.from(pool::getMaxConnecting).to(settings::maxConnecting);
+                    map.from(pool::getMaxWaitTime).as(Duration::toMillis)
+                            .to(millis -> settings.maxWaitTime(millis, TimeUnit.MILLISECONDS));
+                    map.from(pool::getMaxConnectionIdleTime).as(Duration::toMillis)
+                            .to(millis -> settings.maxConnectionIdleTime(millis, TimeUnit.MILLISECONDS));
+                    map.from(pool::getMaxConnectionLifeTime).as(Duration::toMillis)
+                            .to(millis -> settings.maxConnectionLifeTime(millis, TimeUnit.MILLISECONDS));
+                    settings.addConnectionPoolListener(mongoCommandMonitor);
+                })
+                .addCommandListener(mongoCommandMonitor);
+    }
+}
@@ -0,0 +1,44 @@
+package com.moh.yehia.testing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.mongo")
+public class MongoClientProperties {
+    private Pool pool = new Pool();
+    private Reads reads = new Reads();
+    // commands whose connection wait plus server time reach this are logged with their filter shape, 0 disables the log
+    private Duration slowCommandThreshold = Duration.ofMillis(100);
+
+    /**
+     * Connection pool of the Mongo client. Only the values set here are applied, anything left unset keeps what
+     * spring.data.mongodb.uri says (maxPoolSize, waitQueueTimeoutMS, ...) or else the driver's default.
+     */
+    @Data
+    public static class Pool {
+        // driver default 100
+        private Integer maxSize;
+        // driver default 0
+        private Integer minSize;
+        // connections being opened at the same time, checkouts beyond it wait in the queue, driver default 2
+        private Integer maxConnecting;
+        // how long a checkout waits in the queue before failing, driver default 2 minutes
+        private Duration maxWaitTime;
+        // zero keeps idle connections open, the driver default
+        private Duration maxConnectionIdleTime;
+        private Duration maxConnectionLifeTime;
+    }
+
+    /**
+     * Routing of catalog GETs to secondaries, writes and every other read stay on the primary.
+     */
+    @Data
+    public static class Reads {
+        private boolean secondaryEnabled = false;
+        // the server rejects anything below 90 seconds
+        private Duration maxStaleness = Duration.ofSeconds(90);
+    }
+}
@@ -0,0 +1,166 @@
+package com.moh.yehia.testing.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times connection checkouts per server and logs slow commands. A slow command log line carries both the time the
+ * operation waited for a pooled connection and the time the server took, which tells pool starvation apart from a
+ * slow query. Only the shape of the filter is logged, every value is replaced with "?".
+ */
+@Log4j2
+public class MongoCommandMonitor implements ConnectionPoolListener, CommandListener {
+    static final String CHECKOUT_TIMER_NAME = "mongodb.driver.pool.checkout";
+    private static final BsonString PLACEHOLDER = new BsonString("?");
+    // where each command keeps the documents it matches on, update and delete hold them per statement
+    private static final List<String> FILTER_FIELDS = List.of("filter", "query", "pipeline", "q");
+    private static final List<String> STATEMENT_FIELDS = List.of("updates", "deletes");
+
+    private final MeterRegistry meterRegistry;
+    private final long slowCommandThresholdNanos;
+    private final Map<String, Timer> checkoutTimers = new ConcurrentHashMap<>();
+    // checkout wait of the operation holding the connection, cleared when the connection returns to the pool
+    private final Map<Long, Long> checkoutWaits = new ConcurrentHashMap<>();
+    private final Map<Integer, StartedCommand> startedCommands = new ConcurrentHashMap<>();
+
+    public MongoCommandMonitor(MeterRegistry meterRegistry, Duration slowCommandThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowCommandThresholdNanos = slowCommandThreshold.toNanos();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        long wait = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        checkoutTimer(event.getConnectionId().getServerId().getAddress().toString(), "success").record(wait, TimeUnit.NANOSECONDS);
+        if (isSlowLogEnabled()) {
+            checkoutWaits.put(event.getOperationId(), wait);
+        }
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        long wait = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        checkoutTimer(event.getServerId().getAddress().toString(), event.getReason().name().toLowerCase()).record(wait, TimeUnit.NANOSECONDS);
+        log.warn("Mongo connection checkout to {} failed with {} after waiting {} ms",
+                event.getServerId().getAddress(), event.getReason(), TimeUnit.NANOSECONDS.toMillis(wait));
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkoutWaits.remove(event.getOperationId());
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!isSlowLogEnabled()) {
+            return;
+        }
+        // the command document is only readable during this callback, so the shape is taken now
+        BsonDocument command = event.getCommand();
+        BsonValue target = command.get(event.getCommandName());
+        startedCommands.put(event.getRequestId(), new StartedCommand(
+                target != null && target.isString() ? target.asString().getValue() : null,
+                filterShape(command),
+                checkoutWaits.getOrDefault(event.getOperationId(), 0L)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event.getRequestId(), event.getDatabaseName(), event.getCommandName(),
+                event.getElapsedTime(TimeUnit.NANOSECONDS), event.getConnectionDescription().getServerAddress().toString(), null);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event.getRequestId(), event.getDatabaseName(), event.getCommandName(),
+                event.getElapsedTime(TimeUnit.NANOSECONDS), event.getConnectionDescription().getServerAddress().toString(), event.getThrowable());
+    }
+
+    private void completed(int requestId, String database, String commandName, long serverTime, String server, Throwable failure) {
+        StartedCommand started = startedCommands.remove(requestId);
+        if (started == null || started.getCheckoutWait() + serverTime < slowCommandThresholdNanos) {
+            return;
+        }
+        log.warn("slow mongo command {} on {}.{} took {} ms on {} after waiting {} ms for a connection{}, filter = {}",
+                commandName, database, started.getCollection(), TimeUnit.NANOSECONDS.toMillis(serverTime), server,
+                TimeUnit.NANOSECONDS.toMillis(started.getCheckoutWait()),
+                failure == null ? "" : " and failed with " + failure.getMessage(), started.getFilterShape());
+    }
+
+    private boolean isSlowLogEnabled() {
+        return slowCommandThresholdNanos > 0;
+    }
+
+    private Timer checkoutTimer(String serverAddress, String outcome) {
+        return checkoutTimers.computeIfAbsent(serverAddress + '/' + outcome, key -> Timer.builder(CHECKOUT_TIMER_NAME)
+                .description("Time spent waiting for a pooled Mongo connection")
+                .tag("server.address", serverAddress)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    static String filterShape(BsonDocument command) {
+        for (String field : STATEMENT_FIELDS) {
+            BsonValue statements = command.get(field);
+            if (statements != null && statements.isArray() && !statements.asArray().isEmpty()
+                    && statements.asArray().get(0).isDocument()) {
+                return filterShape(statements.asArray().get(0).asDocument());
+            }
+        }
+        for (String field : FILTER_FIELDS) {
+            BsonValue filter = command.get(field);
+            if (filter != null) {
+                return new BsonDocument(field, shape(filter)).toJson();
+            }
+        }
+        return "{}";
+    }
+
+    // keeps field names and operators, replaces every value so no document data reaches the log
+    private static BsonValue shape(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument shape = new BsonDocument();
+            value.asDocument().forEach((key, nested) -> shape.put(key, shape(nested)));
+            return shape;
+        }
+        if (value.isArray()) {
+            BsonArray shape = new BsonArray();
+            // pipelines and $and / $or keep every element, a list of values collapses to one placeholder
+            for (BsonValue element : value.asArray()) {
+                BsonValue elementShape = shape(element);
+                if (elementShape != PLACEHOLDER || shape.isEmpty()) {
+                    shape.add(elementShape);
+                }
+            }
+            return shape;
+        }
+        return PLACEHOLDER;
+    }
+
+    @Value
+    private static class StartedCommand {
+        String collection;
+        String filterShape;
+        long checkoutWait;
+    }
+}
@@ -0,0 +1,48 @@
+package com.moh.yehia.testing.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on the {@link Document} models once the application is ready,
+ * instead of blocking context startup the way {@code auto-index-creation} does.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class MongoIndexInitializer {
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mongoMappingContext;
+    private final TaskExecutor applicationTaskExecutor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIndexes() {
+        applicationTaskExecutor.execute(this::ensureIndexes);
+    }
+
+    void ensureIndexes() {
+        IndexResolver indexResolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+        for (MongoPersistentEntity<?> entity : mongoMappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            try {
+                IndexOperations indexOperations = mongoTemplate.indexOps(entity.getType());
+                indexResolver.resolveIndexFor(entity.getType()).forEach(indexOperations::ensureIndex);
+            } catch (RuntimeException e) {
+                log.error("Unable to create indexes for collection {}", entity.getCollection(), e);
+            }
+        }
+    }
+}
@@ -1,18 +1,58 @@
 package com.moh.yehia.testing.config;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.model.Product;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 @Configuration
 public class ObjectMapperConfig {
+    // filter of the models supporting sparse fieldsets, they are serialized in full unless a request selects fields
+    public static final String FIELDS_FILTER = "fields";
+
     @Bean
     public ObjectMapper objectMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
+        return configure(new ObjectMapper());
+    }
+
+    @Bean
+    public ModelCodecs modelCodecs(ObjectMapper objectMapper) {
+        return new ModelCodecs(objectMapper);
+    }
+
+    // binary encodings for service callers, they replace the converters Spring MVC would build with its own mappers
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(configure(new CBORMapper()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(configure(new SmileMapper()));
+    }
+
+    private static <T extends ObjectMapper> T configure(T objectMapper) {
         objectMapper.registerModule(new JavaTimeModule());
+        // generated accessors instead of reflective getter and setter calls, the output stays the same
+        objectMapper.registerModule(new BlackbirdModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.addMixIn(Product.class, FieldsFilterMixIn.class);
+        objectMapper.addMixIn(Category.class, FieldsFilterMixIn.class);
+        objectMapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
         return objectMapper;
     }
+
+    @JsonFilter(FIELDS_FILTER)
+    private interface FieldsFilterMixIn {
+    }
 }
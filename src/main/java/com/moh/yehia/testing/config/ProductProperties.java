@@ -0,0 +1,42 @@
+package com.moh.yehia.testing.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "app.products")
+public class ProductProperties {
+    @Valid
+    private Batch batch = new Batch();
+    @Valid
+    private Coalesce coalesce = new Coalesce();
+
+    @Data
+    public static class Batch {
+        @Min(1)
+        private int maxItems = 10_000;
+        @Min(1)
+        private int chunkSize = 1_000;
+    }
+
+    /**
+     * Single product saves arriving within the window are written together with one insertMany.
+     */
+    @Data
+    public static class Coalesce {
+        private boolean enabled = false;
+        @NotNull
+        @DurationMin(nanos = 1)
+        private Duration window = Duration.ofMillis(2);
+        @Min(1)
+        private int maxBatchSize = 256;
+    }
+}
@@ -0,0 +1,98 @@
+package com.moh.yehia.testing.config;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import com.moh.yehia.testing.exception.InvalidRequestException;
+import lombok.Value;
+import org.bson.BsonTimestamp;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read route of the request bound to the current thread. A catalog read goes to a secondary within the max
+ * staleness; a write runs in a causally consistent session whose operation time becomes the session token, and a
+ * read presenting that token runs in a session advanced to it, so a secondary only answers once it has replicated
+ * the write. Without a bound request every database is the primary one.
+ */
+public class ReadRouting {
+    private static final ClientSessionOptions CAUSALLY_CONSISTENT = ClientSessionOptions.builder().causallyConsistent(true).build();
+
+    private final MongoDatabaseFactory mongoDatabaseFactory;
+    private final ReadPreference secondaryReadPreference;
+    private final ThreadLocal<Route> routes = new ThreadLocal<>();
+
+    public ReadRouting(MongoDatabaseFactory mongoDatabaseFactory, MongoClientProperties.Reads reads) {
+        this.mongoDatabaseFactory = mongoDatabaseFactory;
+        this.secondaryReadPreference = ReadPreference.secondaryPreferred(reads.getMaxStaleness().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Routes the reads of the current thread to secondaries, after the given session token when there is one.
+     */
+    public void bindRead(String sessionToken) {
+        if (sessionToken == null) {
+            routes.set(new Route(null, secondaryReadPreference, mongoDatabaseFactory));
+            return;
+        }
+        BsonTimestamp operationTime = parseToken(sessionToken);
+        ClientSession session = mongoDatabaseFactory.getSession(CAUSALLY_CONSISTENT);
+        session.advanceOperationTime(operationTime);
+        routes.set(new Route(session, secondaryReadPreference, mongoDatabaseFactory.withSession(session)));
+    }
+
+    /**
+     * Runs the commands of the current thread on the primary in a session that records their operation time.
+     */
+    public void bindWrite() {
+        ClientSession session = mongoDatabaseFactory.getSession(CAUSALLY_CONSISTENT);
+        routes.set(new Route(session, null, mongoDatabaseFactory.withSession(session)));
+    }
+
+    /**
+     * @return the token of the latest operation of the bound session, or null when none ran in a session
+     */
+    public String sessionToken() {
+        Route route = routes.get();
+        BsonTimestamp operationTime = route == null || route.getSession() == null ? null : route.getSession().getOperationTime();
+        return operationTime == null ? null : Long.toHexString(operationTime.getValue());
+    }
+
+    public void unbind() {
+        Route route = routes.get();
+        if (route != null) {
+            routes.remove();
+            if (route.getSession() != null) {
+                route.getSession().close();
+            }
+        }
+    }
+
+    /**
+     * @param dbName null for the default database
+     */
+    MongoDatabase getMongoDatabase(String dbName) {
+        Route route = routes.get();
+        MongoDatabaseFactory factory = route == null ? mongoDatabaseFactory : route.getFactory();
+        MongoDatabase database = dbName == null ? factory.getMongoDatabase() : factory.getMongoDatabase(dbName);
+        return route == null || route.getReadPreference() == null ? database : database.withReadPreference(route.getReadPreference());
+    }
+
+    private static BsonTimestamp parseToken(String sessionToken) {
+        try {
+            return new BsonTimestamp(Long.parseUnsignedLong(sessionToken, 16));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid session token: " + sessionToken);
+        }
+    }
+
+    @Value
+    private static class Route {
+        ClientSession session;
+        ReadPreference readPreference;
+        // the session bound factory wraps every database and collection so their commands carry the session
+        MongoDatabaseFactory factory;
+    }
+}
@@ -0,0 +1,41 @@
+package com.moh.yehia.testing.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Builds MongoTemplate, and so the repositories, on the routing database factory. Only the blocking API under
+ * /api/v1 is routed, the auto-configured factory stays the one every other component sees.
+ */
+@Configuration
+@ConditionalOnProperty(value = "app.mongo.reads.secondary-enabled", havingValue = "true")
+public class ReadRoutingConfig implements WebMvcConfigurer {
+    private static final String API_PATTERN = "/api/v1/**";
+
+    private final ReadRouting readRouting;
+
+    public ReadRoutingConfig(MongoDatabaseFactory mongoDatabaseFactory, MongoClientProperties mongoClientProperties) {
+        this.readRouting = new ReadRouting(mongoDatabaseFactory, mongoClientProperties.getReads());
+    }
+
+    @Bean
+    public ReadRouting readRouting() {
+        return readRouting;
+    }
+
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter) {
+        return new MongoTemplate(new ReadRoutingMongoDatabaseFactory(mongoDatabaseFactory, readRouting), mongoConverter);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadRoutingInterceptor(readRouting)).addPathPatterns(API_PATTERN);
+    }
+}
@@ -0,0 +1,40 @@
+package com.moh.yehia.testing.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Binds the read route of each API request to its thread: GETs read from secondaries, every other method writes
+ * in a causally consistent session whose token is returned in the {@value #SESSION_TOKEN_HEADER} header.
+ */
+@RequiredArgsConstructor
+public class ReadRoutingInterceptor implements AsyncHandlerInterceptor {
+    public static final String SESSION_TOKEN_HEADER = "X-Session-Token";
+
+    private final ReadRouting readRouting;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        if (HttpMethod.GET.matches(request.getMethod())) {
+            readRouting.bindRead(request.getHeader(SESSION_TOKEN_HEADER));
+        } else {
+            readRouting.bindWrite();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler, Exception ex) {
+        readRouting.unbind();
+    }
+
+    // streamed and deferred results continue on another thread, which reads from the primary
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        readRouting.unbind();
+    }
+}
@@ -0,0 +1,61 @@
+package com.moh.yehia.testing.config;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import lombok.RequiredArgsConstructor;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.lang.NonNull;
+
+/**
+ * Hands MongoTemplate the database of the current {@link ReadRouting} route, everything else is the delegate's.
+ */
+@RequiredArgsConstructor
+class ReadRoutingMongoDatabaseFactory implements MongoDatabaseFactory {
+    private final MongoDatabaseFactory delegate;
+    private final ReadRouting readRouting;
+
+    @Override
+    @NonNull
+    public MongoDatabase getMongoDatabase() throws DataAccessException {
+        return readRouting.getMongoDatabase(null);
+    }
+
+    @Override
+    @NonNull
+    public MongoDatabase getMongoDatabase(@NonNull String dbName) throws DataAccessException {
+        return readRouting.getMongoDatabase(dbName);
+    }
+
+    @Override
+    @NonNull
+    public PersistenceExceptionTranslator getExceptionTranslator() {
+        return delegate.getExceptionTranslator();
+    }
+
+    @Override
+    @NonNull
+    public CodecRegistry getCodecRegistry() {
+        return delegate.getCodecRegistry();
+    }
+
+    @Override
+    @NonNull
+    public ClientSession getSession(@NonNull ClientSessionOptions options) {
+        return delegate.getSession(options);
+    }
+
+    @Override
+    @NonNull
+    public MongoDatabaseFactory withSession(@NonNull ClientSession session) {
+        return delegate.withSession(session);
+    }
+
+    @Override
+    public boolean isTransactionActive() {
+        return delegate.isTransactionActive();
+    }
+}
@@ -0,0 +1,14 @@
+package com.moh.yehia.testing.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "app.timing")
+public class TimingProperties {
+    private Duration slowCallThreshold = Duration.ofMillis(500);
+    // log the arguments of one call in every N, 0 disables sampling
+    private int argumentsSampleRate = 0;
+}
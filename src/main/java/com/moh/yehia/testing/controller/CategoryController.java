@@ -1,36 +1,85 @@
 package com.moh.yehia.testing.controller;
 
+import com.moh.yehia.testing.config.HttpCacheProperties;
 import com.moh.yehia.testing.exception.InvalidRequestException;
 import com.moh.yehia.testing.model.Category;
 import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.model.CategorySummary;
+import com.moh.yehia.testing.model.CursorPage;
+import com.moh.yehia.testing.model.Product;
 import com.moh.yehia.testing.service.design.CategoryService;
+import com.moh.yehia.testing.service.design.CategorySummaryService;
+import com.moh.yehia.testing.service.design.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/categories")
 @RequiredArgsConstructor
 @Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CategoryController {
     private final CategoryService categoryService;
+    private final ProductService productService;
+    private final CategorySummaryService categorySummaryService;
+    private final HttpCacheProperties httpCacheProperties;
 
+    // categories are served from the cache, fields only trims the response there
     @GetMapping
-    public List<Category> findAll() {
-        return categoryService.findAll();
+    public ResponseEntity<List<Category>> findAll(@RequestParam(value = "fields", required = false) Set<String> fields) {
+        FieldSelection.of(fields, Category.class);
+        List<Category> categories = categoryService.findAll();
+        return cached(HttpCaching.etag(categories, Category::getId, Category::getVersion), categories);
+    }
+
+    @GetMapping(params = "limit")
+    public CursorPage<Category> findPage(@RequestParam("limit") int limit,
+                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "fields", required = false) Set<String> fields) {
+        return categoryService.findPage(limit, cursor, FieldSelection.of(fields, Category.class));
+    }
+
+    @GetMapping("/summary")
+    public List<CategorySummary> findSummaries() {
+        return categorySummaryService.findAll();
+    }
+
+    @PostMapping("/summary/rebuild")
+    public List<CategorySummary> rebuildSummaries() {
+        log.info("CategoryController :: rebuildSummaries :: start");
+        return categorySummaryService.rebuild();
     }
 
     @GetMapping("/{id}")
-    public Category findById(@PathVariable("id") String id) {
+    public ResponseEntity<Category> findById(@PathVariable("id") String id,
+                                             @RequestParam(value = "fields", required = false) Set<String> fields) {
+        FieldSelection.of(fields, Category.class);
         Category category = categoryService.findById(id);
         if (category == null) {
             throw new InvalidRequestException("Category not found with this id: " + id);
         }
-        return category;
+        return cached(HttpCaching.etag(category.getId(), category.getVersion()), category);
+    }
+
+    @GetMapping("/{id}/products")
+    public CursorPage<Product> findProducts(@PathVariable("id") String id,
+                                            @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                            @RequestParam(value = "cursor", required = false) String cursor,
+                                            @RequestParam(value = "fields", required = false) Set<String> fields) {
+        Set<String> productFields = FieldSelection.of(fields, Product.class);
+        if (categoryService.findById(id) == null) {
+            throw new InvalidRequestException("Category not found with this id: " + id);
+        }
+        return productService.findPageByCategory(id, limit, cursor, productFields);
     }
 
     @PostMapping
@@ -38,4 +87,13 @@ public class CategoryController {
     public Category save(@Valid @RequestBody CategoryRequest categoryRequest) {
         return categoryService.save(categoryRequest);
     }
+
+    // Spring answers a matching If-None-Match with 304 before the body reaches a message converter
+    private <T> ResponseEntity<T> cached(String etag, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(HttpCaching.cacheControl(httpCacheProperties.getCategoriesMaxAge()))
+                .body(body);
+    }
 }
@@ -0,0 +1,48 @@
+package com.moh.yehia.testing.controller;
+
+import com.moh.yehia.testing.exception.InvalidRequestException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Validates the {@code fields} request parameter against the properties of the returned type.
+ */
+final class FieldSelection {
+    private static final ClassValue<SortedSet<String>> PROPERTIES = new ClassValue<>() {
+        @Override
+        protected SortedSet<String> computeValue(Class<?> type) {
+            return Arrays.stream(type.getDeclaredFields())
+                    .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                    .map(Field::getName)
+                    .collect(Collectors.toCollection(TreeSet::new));
+        }
+    };
+
+    private FieldSelection() {
+    }
+
+    /**
+     * @return the given fields, or null when the parameter was not sent and whole documents should be returned
+     */
+    static Set<String> of(Set<String> fields, Class<?> type) {
+        if (fields == null) {
+            return null;
+        }
+        if (fields.isEmpty()) {
+            throw new InvalidRequestException("fields must not be empty");
+        }
+        SortedSet<String> properties = PROPERTIES.get(type);
+        for (String field : fields) {
+            if (!properties.contains(field)) {
+                throw new InvalidRequestException("Unknown field: " + field + ", available fields are " + properties);
+            }
+        }
+        return fields;
+    }
+}
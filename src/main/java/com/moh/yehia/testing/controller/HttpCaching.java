@@ -0,0 +1,81 @@
+package com.moh.yehia.testing.controller;
+
+import org.springframework.http.CacheControl;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * ETags built from document versions, so conditional reads never need the rendered body. Product stock moves
+ * through $inc without bumping the version, so product ETags carry the stock as well.
+ * The same version is served as JSON, CBOR or Smile and may be gzipped, so the tags are weak and every response
+ * varies by Accept: caches keep one entry per representation and a 304 only ever confirms the one a client holds.
+ */
+final class HttpCaching {
+    private static final String VERSION = "version";
+    private static final String STOCK = "stock";
+    private static final String WEAK_PREFIX = "W/";
+    private static final Set<String> PRODUCT_ETAG_FIELDS = Set.of(VERSION, STOCK);
+
+    private HttpCaching() {
+    }
+
+    static String etag(String id, Long version) {
+        return weak(id + "-" + versionOf(version));
+    }
+
+    static String etag(String id, Long version, int stock) {
+        return weak(id + "-" + versionOf(version) + "-" + stock);
+    }
+
+    static <T> String etag(List<T> items, Function<T, String> id, Function<T, Long> version) {
+        long hash = 17;
+        for (T item : items) {
+            hash = 31 * hash + id.apply(item).hashCode();
+            hash = 31 * hash + versionOf(version.apply(item));
+        }
+        return weak(items.size() + "-" + Long.toHexString(hash));
+    }
+
+    // If-None-Match uses the weak comparison, the W/ prefix is ignored on both sides
+    static boolean matches(String ifNoneMatch, String etag) {
+        String opaqueTag = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static CacheControl cacheControl(Duration maxAge) {
+        return maxAge.isZero() ? CacheControl.noCache() : CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    // the ETag needs the version and stock even when the client selected fields without them
+    static Set<String> withProductETagFields(Set<String> fields) {
+        if (fields == null || fields.containsAll(PRODUCT_ETAG_FIELDS)) {
+            return fields;
+        }
+        Set<String> projection = new HashSet<>(fields);
+        projection.addAll(PRODUCT_ETAG_FIELDS);
+        return projection;
+    }
+
+    private static String weak(String value) {
+        return WEAK_PREFIX + "\"" + value + "\"";
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+
+    // documents written before versioning have none, the first update sets it to 1
+    private static long versionOf(Long version) {
+        return version == null ? 0 : version;
+    }
+}
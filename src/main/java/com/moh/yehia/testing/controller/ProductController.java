@@ -1,38 +1,124 @@
 package com.moh.yehia.testing.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.moh.yehia.testing.config.HttpCacheProperties;
+import com.moh.yehia.testing.config.ModelCodecs;
 import com.moh.yehia.testing.exception.InvalidRequestException;
+import com.moh.yehia.testing.model.BatchItemResult;
+import com.moh.yehia.testing.model.CursorPage;
 import com.moh.yehia.testing.model.Product;
 import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.model.ProductSuggestion;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import com.moh.yehia.testing.model.StockLevel;
+import com.moh.yehia.testing.model.StockRequest;
 import com.moh.yehia.testing.service.design.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/products")
 @RequiredArgsConstructor
 @Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ProductController {
     private final ProductService productService;
+    private final ModelCodecs modelCodecs;
+    private final HttpCacheProperties httpCacheProperties;
 
     @GetMapping
-    public List<Product> findAll() {
+    public List<Product> findAll(@RequestParam(value = "fields", required = false) Set<String> fields) {
         log.info("ProductController :: findAll :: start");
-        return productService.findAll();
+        return productService.findAll(FieldSelection.of(fields, Product.class));
+    }
+
+    @GetMapping(params = "limit")
+    public CursorPage<Product> findPage(@RequestParam("limit") int limit,
+                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "fields", required = false) Set<String> fields) {
+        log.info("ProductController :: findPage :: start");
+        return productService.findPage(limit, cursor, FieldSelection.of(fields, Product.class));
+    }
+
+    @GetMapping("/search")
+    public List<Product> search(@RequestParam("q") String query,
+                                @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        log.info("ProductController :: search :: start");
+        return productService.search(query, limit);
+    }
+
+    @GetMapping("/suggestions")
+    public List<ProductSuggestion> suggest(@RequestParam("q") String prefix,
+                                           @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return productService.suggest(prefix, limit);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        log.info("ProductController :: export :: start");
+        StreamingResponseBody body = outputStream -> {
+            // the blocking servlet stream throttles the Mongo cursor, so a slow client never makes us buffer
+            // documents are separated by the writer's root value separator, the last one still ends its line
+            ObjectWriter writer = modelCodecs.getProductNdjsonWriter();
+            try (Stream<Product> products = productService.streamAll();
+                 JsonGenerator generator = writer.createGenerator(outputStream)) {
+                Iterator<Product> iterator = products.iterator();
+                boolean written = false;
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    written = true;
+                }
+                if (written) {
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    public Product findById(@PathVariable("id") String id) {
+    public ResponseEntity<Product> findById(@PathVariable("id") String id,
+                                            @RequestParam(value = "fields", required = false) Set<String> fields,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("ProductController :: findById :: start");
-        Product product = productService.findById(id);
+        Set<String> productFields = HttpCaching.withProductETagFields(FieldSelection.of(fields, Product.class));
+        CacheControl cacheControl = HttpCaching.cacheControl(httpCacheProperties.getProductsMaxAge());
+        // one read serves both outcomes: a product is small, so a version-only projection would save little on a 304
+        // and cost a second round trip whenever the tag is stale
+        Product product = productService.findById(id, productFields);
         if (product == null) {
             throw new InvalidRequestException("Product not found with this id: " + id);
         }
-        return product;
+        String etag = HttpCaching.etag(product.getId(), product.getVersion(), product.getStock());
+        if (ifNoneMatch != null && HttpCaching.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(cacheControl)
+                .body(product);
     }
 
     @PostMapping
@@ -42,9 +128,27 @@ public class ProductController {
         return productService.save(productRequest);
     }
 
+    @PostMapping("/batch")
+    public List<BatchItemResult> saveAll(@RequestBody List<ProductRequest> productRequests) {
+        log.info("ProductController :: saveAll :: start");
+        return productService.saveAll(productRequests);
+    }
+
+    @PostMapping("/{id}/reserve")
+    public StockLevel reserve(@PathVariable("id") String id, @Valid @RequestBody StockRequest stockRequest) {
+        log.info("ProductController :: reserve :: start");
+        return productService.reserveStock(id, stockRequest.getQuantity());
+    }
+
+    @PostMapping("/{id}/release")
+    public StockLevel release(@PathVariable("id") String id, @Valid @RequestBody StockRequest stockRequest) {
+        log.info("ProductController :: release :: start");
+        return productService.releaseStock(id, stockRequest.getQuantity());
+    }
+
     @PutMapping("/{id}")
-    public Product update(@PathVariable("id") String id, @RequestBody ProductRequest productRequest) {
+    public Product update(@PathVariable("id") String id, @Valid @RequestBody ProductUpdateRequest productUpdateRequest) {
         log.info("ProductController :: update :: start");
-        return new Product(id, productRequest.getName(), productRequest.getDescription(), productRequest.getPrice(), productRequest.getStock(), productRequest.getCategoryId());
+        return productService.update(id, productUpdateRequest);
     }
 }
@@ -0,0 +1,45 @@
+package com.moh.yehia.testing.controller.reactive;
+
+import com.moh.yehia.testing.exception.InvalidRequestException;
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.model.CursorPage;
+import com.moh.yehia.testing.service.design.ReactiveCategoryService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/categories")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCategoryController {
+    private final ReactiveCategoryService categoryService;
+
+    @GetMapping
+    public Flux<Category> findAll() {
+        return categoryService.findAll();
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<CursorPage<Category>> findPage(@RequestParam("limit") int limit,
+                                               @RequestParam(value = "cursor", required = false) String cursor) {
+        return categoryService.findPage(limit, cursor);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Category> findById(@PathVariable("id") String id) {
+        return categoryService.findById(id)
+                .switchIfEmpty(Mono.error(() -> new InvalidRequestException("Category not found with this id: " + id)));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Category> save(@Valid @RequestBody CategoryRequest categoryRequest) {
+        return categoryService.save(categoryRequest);
+    }
+}
@@ -0,0 +1,57 @@
+package com.moh.yehia.testing.controller.reactive;
+
+import com.moh.yehia.testing.exception.InvalidRequestException;
+import com.moh.yehia.testing.model.CursorPage;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import com.moh.yehia.testing.service.design.ReactiveProductService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductController {
+    private final ReactiveProductService productService;
+
+    @GetMapping
+    public Flux<Product> findAll() {
+        return productService.findAll();
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<CursorPage<Product>> findPage(@RequestParam("limit") int limit,
+                                              @RequestParam(value = "cursor", required = false) String cursor) {
+        return productService.findPage(limit, cursor);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> export() {
+        return productService.findAll();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Product> findById(@PathVariable("id") String id) {
+        return productService.findById(id)
+                .switchIfEmpty(Mono.error(() -> new InvalidRequestException("Product not found with this id: " + id)));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Product> save(@Valid @RequestBody ProductRequest productRequest) {
+        return productService.save(productRequest);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<Product> update(@PathVariable("id") String id, @Valid @RequestBody ProductUpdateRequest productUpdateRequest) {
+        return productService.update(id, productUpdateRequest);
+    }
+}
@@ -0,0 +1,8 @@
+package com.moh.yehia.testing.exception;
+
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
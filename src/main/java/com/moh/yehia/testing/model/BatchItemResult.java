@@ -0,0 +1,23 @@
+package com.moh.yehia.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchItemResult {
+    public static final String CREATED = "CREATED";
+    public static final String INVALID_REQUEST = "INVALID_REQUEST";
+    public static final String FAILED = "FAILED";
+
+    private int index;
+    private String status;
+    private String id;
+    private Map<String, String> errors;
+}
@@ -0,0 +1,33 @@
+package com.moh.yehia.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import org.springframework.data.mongodb.core.mapping.MongoId;
+
+import java.math.BigDecimal;
+
+/**
+ * Inventory of one category, kept up to date by the product writes instead of being computed per read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(CategorySummary.COLLECTION)
+public class CategorySummary {
+    public static final String COLLECTION = "category_summary";
+
+    // always a string, like Product.categoryId that the rebuild groups on, or a hex id would become an ObjectId here
+    @MongoId(FieldType.STRING)
+    private String categoryId;
+    private long productCount;
+    private long stockUnits;
+    // Decimal128 so $inc and $sum stay exact, the products keep their prices as strings
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal stockValue;
+}
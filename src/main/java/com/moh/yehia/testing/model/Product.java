@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -14,12 +17,17 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @Builder
 @Document
+@CompoundIndex(name = "categoryId_id", def = "{'categoryId': 1, '_id': 1}")
 public class Product {
     @Id
     private String id;
+    @TextIndexed(weight = 2)
     private String name;
+    @TextIndexed
     private String description;
     private BigDecimal price;
     private int stock;
     private String categoryId;
+    @Version
+    private Long version;
 }
@@ -0,0 +1,40 @@
+package com.moh.yehia.testing.model;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Null;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Partial update of a product, fields left null are not changed.
+ * {@code version} must be the version the client read, it is null only for products stored before versioning.
+ * Stock is not part of it: reservations $inc the stock without bumping the version, so an absolute stock written
+ * against a version could silently undo them. Stock moves only through the reserve and release endpoints.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductUpdateRequest {
+    @Size(min = 1, message = "must not be empty")
+    private String name;
+
+    @Size(min = 1, message = "must not be empty")
+    private String description;
+
+    @DecimalMin("0")
+    private BigDecimal price;
+
+    @Size(min = 1, message = "must not be empty")
+    private String categoryId;
+
+    @Null(message = "changes only through the reserve and release endpoints")
+    private Integer stock;
+
+    private Long version;
+}
@@ -0,0 +1,23 @@
+package com.moh.yehia.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Position in a change stream of one consumer, the opaque {@code _data} of the driver's resume token.
+ */
+@Document("resume_token")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeToken {
+    @Id
+    private String consumerId;
+    private String data;
+    private Instant savedAt;
+}
@@ -0,0 +1,14 @@
+package com.moh.yehia.testing.model;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockRequest {
+    @Min(1)
+    private int quantity;
+}
@@ -1,10 +1,15 @@
 package com.moh.yehia.testing.repository;
 
 import com.moh.yehia.testing.model.Category;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface CategoryRepository extends MongoRepository<Category, String> {
+public interface CategoryRepository extends MongoRepository<Category, String>, CategoryRepositoryCustom {
+    List<Category> findAllByOrderByIdAsc(Pageable pageable);
 
+    List<Category> findByIdGreaterThanOrderByIdAsc(String id, Pageable pageable);
 }
@@ -0,0 +1,16 @@
+package com.moh.yehia.testing.repository;
+
+import com.moh.yehia.testing.model.Category;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+public interface CategoryRepositoryCustom {
+    /**
+     * Same as the keyset page queries of {@link CategoryRepository}, reading only the given fields.
+     *
+     * @param afterId the last id of the previous page, null for the first page
+     */
+    List<Category> findPageWithFields(String afterId, Pageable pageable, Set<String> fields);
+}
@@ -0,0 +1,26 @@
+package com.moh.yehia.testing.repository;
+
+import com.moh.yehia.testing.model.Category;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class CategoryRepositoryCustomImpl implements CategoryRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Category> findPageWithFields(String afterId, Pageable pageable, Set<String> fields) {
+        Query query = new Query().with(Sort.by("id")).limit(pageable.getPageSize());
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+        return mongoTemplate.find(FieldProjection.include(query, fields), Category.class);
+    }
+}
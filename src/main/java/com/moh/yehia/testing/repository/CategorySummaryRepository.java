@@ -0,0 +1,12 @@
+package com.moh.yehia.testing.repository;
+
+import com.moh.yehia.testing.model.CategorySummary;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategorySummaryRepository extends MongoRepository<CategorySummary, String>, CategorySummaryRepositoryCustom {
+    List<CategorySummary> findAllByOrderByCategoryIdAsc();
+}
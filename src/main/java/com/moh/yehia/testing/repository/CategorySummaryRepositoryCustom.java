@@ -0,0 +1,15 @@
+package com.moh.yehia.testing.repository;
+
+import java.math.BigDecimal;
+
+public interface CategorySummaryRepositoryCustom {
+    /**
+     * Atomically adds the given amounts to the category summary, creating it when missing.
+     */
+    void increment(String categoryId, long productCount, long stockUnits, BigDecimal stockValue);
+
+    /**
+     * Recomputes every category summary from the products with one aggregation and replaces the collection with the result.
+     */
+    void rebuild();
+}
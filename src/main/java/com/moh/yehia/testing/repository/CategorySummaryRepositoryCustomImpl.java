@@ -0,0 +1,44 @@
+package com.moh.yehia.testing.repository;
+
+import com.moh.yehia.testing.model.CategorySummary;
+import com.moh.yehia.testing.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+
+@RequiredArgsConstructor
+public class CategorySummaryRepositoryCustomImpl implements CategorySummaryRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(String categoryId, long productCount, long stockUnits, BigDecimal stockValue) {
+        Update update = new Update()
+                .inc("productCount", productCount)
+                .inc("stockUnits", stockUnits)
+                .inc("stockValue", new Decimal128(stockValue));
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(categoryId)), update, CategorySummary.class);
+    }
+
+    @Override
+    public void rebuild() {
+        // $toDecimal reads the string prices exactly, and products without a price count as zero value
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("categoryId").ne(null)),
+                Aggregation.group("categoryId")
+                        .count().as("productCount")
+                        .sum("stock").as("stockUnits")
+                        .sum(ArithmeticOperators.valueOf(ConvertOperators.valueOf("price").convertToDecimal()).multiplyBy("stock")).as("stockValue"),
+                Aggregation.out(CategorySummary.COLLECTION)
+        );
+        mongoTemplate.aggregate(aggregation, Product.class, Document.class);
+    }
+}
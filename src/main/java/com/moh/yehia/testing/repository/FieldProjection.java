@@ -0,0 +1,18 @@
+package com.moh.yehia.testing.repository;
+
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Set;
+
+final class FieldProjection {
+    private FieldProjection() {
+    }
+
+    // _id is always returned by Mongo, keyset pagination relies on it even when the client did not ask for it
+    static Query include(Query query, Set<String> fields) {
+        Field projection = query.fields();
+        fields.forEach(projection::include);
+        return query;
+    }
+}
@@ -1,9 +1,22 @@
 package com.moh.yehia.testing.repository;
 
 import com.moh.yehia.testing.model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
+    List<Product> findAllByOrderByIdAsc(Pageable pageable);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(String id, Pageable pageable);
+
+    Stream<Product> streamAllBy();
+
+    <T> List<T> findByCategoryIdOrderByIdAsc(String categoryId, Pageable pageable, Class<T> type);
+
+    <T> List<T> findByCategoryIdAndIdGreaterThanOrderByIdAsc(String categoryId, String id, Pageable pageable, Class<T> type);
 }
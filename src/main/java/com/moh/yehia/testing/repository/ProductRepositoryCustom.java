@@ -0,0 +1,57 @@
+package com.moh.yehia.testing.repository;
+
+import com.moh.yehia.testing.model.Product;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface ProductRepositoryCustom {
+    List<Product> findAllWithFields(Set<String> fields);
+
+    Optional<Product> findByIdWithFields(String productId, Set<String> fields);
+
+    /**
+     * Same as the keyset page queries of {@link ProductRepository}, reading only the given fields.
+     *
+     * @param categoryId restricts the page to one category when not null
+     * @param afterId    the last id of the previous page, null for the first page
+     */
+    List<Product> findPageWithFields(String categoryId, String afterId, Pageable pageable, Set<String> fields);
+
+    /**
+     * Full text search over the text index on name and description, best matches first.
+     */
+    List<Product> searchText(String text, int limit);
+
+    /**
+     * Inserts all products with one unordered bulk write, starting every unversioned product at version 0 as
+     * {@code save} would.
+     *
+     * @return the error message of every product that could not be inserted, keyed by its index in {@code products}
+     */
+    Map<Integer, String> bulkInsert(List<Product> products);
+
+    /**
+     * Atomically takes {@code quantity} units from the product stock, only if at least that many are left.
+     *
+     * @return the product holding only its id, new stock, price and category, or null when it does not exist or has not enough stock
+     */
+    Product reserveStock(String productId, int quantity);
+
+    /**
+     * Atomically returns {@code quantity} units to the product stock.
+     *
+     * @return the product holding only its id, new stock, price and category, or null when it does not exist
+     */
+    Product releaseStock(String productId, int quantity);
+
+    /**
+     * Sets only the given fields and increments the version, provided the stored version still equals {@code version}.
+     *
+     * @return the product as it was before the update, or null when it does not exist or its version has changed
+     */
+    Product updateFields(String productId, Long version, Map<String, Object> fields);
+}
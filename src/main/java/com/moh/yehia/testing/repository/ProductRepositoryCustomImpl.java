@@ -0,0 +1,107 @@
+package com.moh.yehia.testing.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.moh.yehia.testing.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Product> findAllWithFields(Set<String> fields) {
+        return mongoTemplate.find(FieldProjection.include(new Query(), fields), Product.class);
+    }
+
+    @Override
+    public Optional<Product> findByIdWithFields(String productId, Set<String> fields) {
+        Query query = Query.query(Criteria.where("id").is(productId));
+        return Optional.ofNullable(mongoTemplate.findOne(FieldProjection.include(query, fields), Product.class));
+    }
+
+    @Override
+    public List<Product> findPageWithFields(String categoryId, String afterId, Pageable pageable, Set<String> fields) {
+        Query query = new Query().with(Sort.by("id")).limit(pageable.getPageSize());
+        if (categoryId != null) {
+            query.addCriteria(Criteria.where("categoryId").is(categoryId));
+        }
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("id").gt(afterId));
+        }
+        return mongoTemplate.find(FieldProjection.include(query, fields), Product.class);
+    }
+
+    @Override
+    public List<Product> searchText(String text, int limit) {
+        Query query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .limit(limit);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Override
+    public Map<Integer, String> bulkInsert(List<Product> products) {
+        if (products.isEmpty()) {
+            return Map.of();
+        }
+        // bulk inserts skip the version initialisation save() does, and save() treats a null version as a new document
+        products.stream()
+                .filter(product -> product.getVersion() == null)
+                .forEach(product -> product.setVersion(0L));
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)
+                    .insert(products)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            return e.getErrors().stream()
+                    .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage));
+        }
+    }
+
+    @Override
+    public Product reserveStock(String productId, int quantity) {
+        // the stock guard is part of the filter, so concurrent reservations can never take the stock below zero
+        Criteria criteria = Criteria.where("_id").is(productId).and("stock").gte(quantity);
+        return incrementStock(criteria, -quantity);
+    }
+
+    @Override
+    public Product releaseStock(String productId, int quantity) {
+        return incrementStock(Criteria.where("_id").is(productId), quantity);
+    }
+
+    @Override
+    public Product updateFields(String productId, Long version, Map<String, Object> fields) {
+        // a null version matches documents written before the version field existed
+        Query query = Query.query(Criteria.where("_id").is(productId).and("version").is(version));
+        Update update = new Update().inc("version", 1);
+        fields.forEach(update::set);
+        // the previous document gives the exact old values, the caller knows the new ones from the fields it set
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Product.class);
+    }
+
+    private Product incrementStock(Criteria criteria, int delta) {
+        Query query = Query.query(criteria);
+        query.fields().include("stock", "price", "categoryId");
+        return mongoTemplate.findAndModify(query, new Update().inc("stock", delta),
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+}
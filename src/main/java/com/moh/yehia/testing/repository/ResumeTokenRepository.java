@@ -0,0 +1,9 @@
+package com.moh.yehia.testing.repository;
+
+import com.moh.yehia.testing.model.ResumeToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ResumeTokenRepository extends MongoRepository<ResumeToken, String> {
+}
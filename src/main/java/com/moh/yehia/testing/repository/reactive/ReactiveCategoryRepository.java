@@ -0,0 +1,14 @@
+package com.moh.yehia.testing.repository.reactive;
+
+import com.moh.yehia.testing.model.Category;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveCategoryRepository extends ReactiveMongoRepository<Category, String> {
+    Flux<Category> findAllByOrderByIdAsc(Pageable pageable);
+
+    Flux<Category> findByIdGreaterThanOrderByIdAsc(String id, Pageable pageable);
+}
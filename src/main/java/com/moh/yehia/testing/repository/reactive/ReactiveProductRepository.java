@@ -0,0 +1,14 @@
+package com.moh.yehia.testing.repository.reactive;
+
+import com.moh.yehia.testing.model.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String>, ReactiveProductRepositoryCustom {
+    Flux<Product> findAllByOrderByIdAsc(Pageable pageable);
+
+    Flux<Product> findByIdGreaterThanOrderByIdAsc(String id, Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package com.moh.yehia.testing.repository.reactive;
+
+import com.moh.yehia.testing.model.Product;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+public interface ReactiveProductRepositoryCustom {
+    /**
+     * Sets only the given fields and increments the version, provided the stored version still equals {@code version}.
+     *
+     * @return the product as it was before the update, empty when it does not exist or its version has changed
+     */
+    Mono<Product> updateFields(String productId, Long version, Map<String, Object> fields);
+}
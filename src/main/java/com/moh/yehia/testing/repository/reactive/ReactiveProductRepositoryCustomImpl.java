@@ -0,0 +1,26 @@
+package com.moh.yehia.testing.repository.reactive;
+
+import com.moh.yehia.testing.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ReactiveProductRepositoryCustomImpl implements ReactiveProductRepositoryCustom {
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Mono<Product> updateFields(String productId, Long version, Map<String, Object> fields) {
+        // same guarded update as the servlet repository, a null version matches documents written before versioning
+        Query query = Query.query(Criteria.where("_id").is(productId).and("version").is(version));
+        Update update = new Update().inc("version", 1);
+        fields.forEach(update::set);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Product.class);
+    }
+}
@@ -0,0 +1,13 @@
+package com.moh.yehia.testing.service.design;
+
+/**
+ * Known category ids held in memory, so product writes can check their category without a database round trip.
+ */
+public interface CategoryIdRegistry {
+    /**
+     * @return whether the category exists, only ids missing from memory are looked up in the database
+     */
+    boolean exists(String categoryId);
+
+    void register(String categoryId);
+}
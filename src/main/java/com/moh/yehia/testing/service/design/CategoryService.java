@@ -2,12 +2,23 @@ package com.moh.yehia.testing.service.design;
 
 import com.moh.yehia.testing.model.Category;
 import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.model.CursorPage;
 
 import java.util.List;
+import java.util.Set;
 
 public interface CategoryService {
     List<Category> findAll();
 
+    default CursorPage<Category> findPage(int limit, String cursor) {
+        return findPage(limit, cursor, null);
+    }
+
+    /**
+     * @param fields the category fields to load, null loads whole categories
+     */
+    CursorPage<Category> findPage(int limit, String cursor, Set<String> fields);
+
     Category findById(String categoryId);
 
     Category save(CategoryRequest categoryRequest);
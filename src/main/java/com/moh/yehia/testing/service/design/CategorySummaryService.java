@@ -0,0 +1,28 @@
+package com.moh.yehia.testing.service.design;
+
+import com.moh.yehia.testing.model.CategorySummary;
+import com.moh.yehia.testing.model.Product;
+
+import java.util.List;
+
+/**
+ * Per category product count, stock units and stock value ({@code price * stock}), maintained incrementally by the
+ * product writes. Products without a category are not summarized.
+ */
+public interface CategorySummaryService {
+    List<CategorySummary> findAll();
+
+    /**
+     * Recomputes all summaries from the products, repairing any drift left by failed incremental updates.
+     */
+    List<CategorySummary> rebuild();
+
+    void productsAdded(List<Product> products);
+
+    void productChanged(Product before, Product after);
+
+    /**
+     * @param product the product after the stock change, holding at least its category and price
+     */
+    void stockMoved(Product product, int delta);
+}
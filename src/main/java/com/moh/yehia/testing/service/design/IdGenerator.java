@@ -0,0 +1,8 @@
+package com.moh.yehia.testing.service.design;
+
+/**
+ * Generates the {@code _id} of new documents. Declare a {@code @Primary} bean to replace the default {@code ObjectIdGenerator}.
+ */
+public interface IdGenerator {
+    String generateId();
+}
@@ -0,0 +1,27 @@
+package com.moh.yehia.testing.service.design;
+
+import com.moh.yehia.testing.model.ProductSuggestion;
+
+import java.util.List;
+
+/**
+ * In-process index of product names answering typeahead lookups without a database round trip.
+ */
+public interface ProductNameIndex {
+    /**
+     * Adds the product, or replaces the name it was indexed with.
+     */
+    void put(String productId, String name);
+
+    void remove(String productId);
+
+    /**
+     * Drops every entry and loads the names again from the database.
+     */
+    void reload();
+
+    /**
+     * @return up to {@code limit} products whose name starts with {@code prefix} ignoring case, in name order
+     */
+    List<ProductSuggestion> suggest(String prefix, int limit);
+}
@@ -1,14 +1,58 @@
 package com.moh.yehia.testing.service.design;
 
+import com.moh.yehia.testing.model.BatchItemResult;
+import com.moh.yehia.testing.model.CursorPage;
 import com.moh.yehia.testing.model.Product;
 import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.model.ProductSuggestion;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import com.moh.yehia.testing.model.StockLevel;
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
+/**
+ * Read methods taking {@code fields} load only those product fields, null loads the whole product.
+ */
 public interface ProductService {
-    List<Product> findAll();
+    default List<Product> findAll() {
+        return findAll(null);
+    }
 
-    Product findById(String productId);
+    List<Product> findAll(Set<String> fields);
+
+    default CursorPage<Product> findPage(int limit, String cursor) {
+        return findPage(limit, cursor, null);
+    }
+
+    CursorPage<Product> findPage(int limit, String cursor, Set<String> fields);
+
+    Stream<Product> streamAll();
+
+    default CursorPage<Product> findPageByCategory(String categoryId, int limit, String cursor) {
+        return findPageByCategory(categoryId, limit, cursor, null);
+    }
+
+    CursorPage<Product> findPageByCategory(String categoryId, int limit, String cursor, Set<String> fields);
+
+    default Product findById(String productId) {
+        return findById(productId, null);
+    }
+
+    Product findById(String productId, Set<String> fields);
+
+    List<Product> search(String query, int limit);
+
+    List<ProductSuggestion> suggest(String prefix, int limit);
 
     Product save(ProductRequest productRequest);
+
+    Product update(String productId, ProductUpdateRequest productUpdateRequest);
+
+    List<BatchItemResult> saveAll(List<ProductRequest> productRequests);
+
+    StockLevel reserveStock(String productId, int quantity);
+
+    StockLevel releaseStock(String productId, int quantity);
 }
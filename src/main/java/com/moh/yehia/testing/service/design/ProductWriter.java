@@ -0,0 +1,13 @@
+package com.moh.yehia.testing.service.design;
+
+import com.moh.yehia.testing.model.Product;
+
+/**
+ * Inserts single new products, possibly sharing one database round trip with other concurrent callers.
+ */
+public interface ProductWriter {
+    /**
+     * Blocks until the product is stored and fails with the exception a direct save of it would have thrown.
+     */
+    Product insert(Product product);
+}
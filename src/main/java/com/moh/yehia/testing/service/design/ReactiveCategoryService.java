@@ -0,0 +1,17 @@
+package com.moh.yehia.testing.service.design;
+
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.model.CursorPage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCategoryService {
+    Flux<Category> findAll();
+
+    Mono<CursorPage<Category>> findPage(int limit, String cursor);
+
+    Mono<Category> findById(String categoryId);
+
+    Mono<Category> save(CategoryRequest categoryRequest);
+}
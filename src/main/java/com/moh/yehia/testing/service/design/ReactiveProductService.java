@@ -0,0 +1,20 @@
+package com.moh.yehia.testing.service.design;
+
+import com.moh.yehia.testing.model.CursorPage;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveProductService {
+    Flux<Product> findAll();
+
+    Mono<CursorPage<Product>> findPage(int limit, String cursor);
+
+    Mono<Product> findById(String productId);
+
+    Mono<Product> save(ProductRequest productRequest);
+
+    Mono<Product> update(String productId, ProductUpdateRequest productUpdateRequest);
+}
@@ -1,37 +1,72 @@
 package com.moh.yehia.testing.service.impl;
 
+import com.moh.yehia.testing.config.CacheConfig;
 import com.moh.yehia.testing.model.Category;
 import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.model.CursorPage;
 import com.moh.yehia.testing.repository.CategoryRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import com.moh.yehia.testing.service.design.IdGenerator;
 import com.moh.yehia.testing.service.design.CategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
+    private final IdGenerator idGenerator;
+    private final CategoryIdRegistry categoryIdRegistry;
 
     @Override
+    @Cacheable(CacheConfig.CATEGORY_LIST)
     public List<Category> findAll() {
         return categoryRepository.findAll();
     }
 
     @Override
+    public CursorPage<Category> findPage(int limit, String cursor, Set<String> fields) {
+        Pageable pageable = KeysetPagination.firstPage(limit);
+        String lastId = KeysetPagination.decodeCursor(cursor);
+        List<Category> categories;
+        if (fields != null) {
+            categories = KeysetPagination.afterCursor(lastId, pageable,
+                    (afterId, page) -> categoryRepository.findPageWithFields(afterId, page, fields));
+        } else {
+            categories = lastId == null
+                    ? categoryRepository.findAllByOrderByIdAsc(pageable)
+                    : KeysetPagination.afterCursor(lastId, pageable, categoryRepository::findByIdGreaterThanOrderByIdAsc);
+        }
+        return KeysetPagination.toPage(categories, limit, Category::getId);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#categoryId", unless = "#result == null")
     public Category findById(String categoryId) {
         return categoryRepository.findById(categoryId).orElse(null);
     }
 
     @Override
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.CATEGORIES, key = "#result.id"),
+            evict = @CacheEvict(cacheNames = CacheConfig.CATEGORY_LIST, allEntries = true)
+    )
     public Category save(CategoryRequest categoryRequest) {
         Category category = Category.builder()
-                .id(UUID.randomUUID().toString())
+                .id(idGenerator.generateId())
                 .name(categoryRequest.getName())
                 .description(categoryRequest.getDescription())
                 .build();
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        categoryIdRegistry.register(savedCategory.getId());
+        return savedCategory;
     }
 }
@@ -0,0 +1,82 @@
+package com.moh.yehia.testing.service.impl;
+
+import com.moh.yehia.testing.model.CategorySummary;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.repository.CategorySummaryRepository;
+import com.moh.yehia.testing.service.design.CategorySummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class CategorySummaryServiceImpl implements CategorySummaryService {
+    private final CategorySummaryRepository categorySummaryRepository;
+
+    @Override
+    public List<CategorySummary> findAll() {
+        return categorySummaryRepository.findAllByOrderByCategoryIdAsc();
+    }
+
+    @Override
+    public List<CategorySummary> rebuild() {
+        categorySummaryRepository.rebuild();
+        return findAll();
+    }
+
+    @Override
+    public void productsAdded(List<Product> products) {
+        // one increment per category, a batch insert does not pay one write per product
+        Map<String, CategorySummary> deltas = new HashMap<>();
+        for (Product product : products) {
+            if (product.getCategoryId() == null) {
+                continue;
+            }
+            CategorySummary delta = deltas.computeIfAbsent(product.getCategoryId(),
+                    categoryId -> new CategorySummary(categoryId, 0, 0, BigDecimal.ZERO));
+            delta.setProductCount(delta.getProductCount() + 1);
+            delta.setStockUnits(delta.getStockUnits() + product.getStock());
+            delta.setStockValue(delta.getStockValue().add(value(product.getPrice(), product.getStock())));
+        }
+        deltas.values().forEach(delta -> increment(delta.getCategoryId(), delta.getProductCount(), delta.getStockUnits(), delta.getStockValue()));
+    }
+
+    @Override
+    public void productChanged(Product before, Product after) {
+        if (Objects.equals(before.getCategoryId(), after.getCategoryId())) {
+            increment(after.getCategoryId(), 0, after.getStock() - before.getStock(),
+                    value(after.getPrice(), after.getStock()).subtract(value(before.getPrice(), before.getStock())));
+            return;
+        }
+        increment(before.getCategoryId(), -1, -before.getStock(), value(before.getPrice(), before.getStock()).negate());
+        increment(after.getCategoryId(), 1, after.getStock(), value(after.getPrice(), after.getStock()));
+    }
+
+    @Override
+    public void stockMoved(Product product, int delta) {
+        increment(product.getCategoryId(), 0, delta, value(product.getPrice(), delta));
+    }
+
+    // the product write already succeeded, a failed summary update is repaired by a rebuild instead of failing the request
+    private void increment(String categoryId, long productCount, long stockUnits, BigDecimal stockValue) {
+        if (categoryId == null || (productCount == 0 && stockUnits == 0 && stockValue.signum() == 0)) {
+            return;
+        }
+        try {
+            categorySummaryRepository.increment(categoryId, productCount, stockUnits, stockValue);
+        } catch (RuntimeException e) {
+            log.error("Unable to update the summary of category {}, it drifts until the next rebuild", categoryId, e);
+        }
+    }
+
+    private static BigDecimal value(BigDecimal price, long units) {
+        return price == null ? BigDecimal.ZERO : price.multiply(BigDecimal.valueOf(units));
+    }
+}
@@ -0,0 +1,278 @@
+package com.moh.yehia.testing.service.impl;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.MongoException;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.moh.yehia.testing.config.CacheConfig;
+import com.moh.yehia.testing.config.CacheSyncProperties;
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ResumeToken;
+import com.moh.yehia.testing.repository.ResumeTokenRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import com.moh.yehia.testing.service.design.ProductNameIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the in-memory state of this instance coherent with writes made by any instance: one change stream over the
+ * product and category collections evicts the category caches, registers new category ids and updates the product
+ * name index. The stream resumes after the last stored token, so events written while the instance was down or
+ * reconnecting are replayed. Without a stored token it starts at the cluster time taken when this bean was created,
+ * before the name index and category registry take their snapshot, so changes racing those loads are replayed too.
+ * Every event is safe to apply twice, which lets the token be stored only periodically.
+ */
+@Component
+@ConditionalOnProperty(value = "app.cache-sync.enabled", havingValue = "true")
+@Log4j2
+public class ChangeStreamCacheSynchronizer {
+    private static final String NAME = "name";
+    private static final String DATA = "_data";
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+    // the server can no longer resume after the token, the events in between are gone
+    private static final Set<Integer> HISTORY_LOST_CODES = Set.of(260, 280, 286);
+
+    private final MongoTemplate mongoTemplate;
+    private final ResumeTokenRepository resumeTokenRepository;
+    private final CacheManager cacheManager;
+    private final CategoryIdRegistry categoryIdRegistry;
+    private final ProductNameIndex productNameIndex;
+    private final CacheSyncProperties cacheSyncProperties;
+    private final String productCollection;
+    private final String categoryCollection;
+    private volatile boolean running;
+    private Thread listener;
+    private BsonDocument resumeToken;
+    private volatile BsonTimestamp startAtOperationTime;
+    private long tokenSavedAt;
+
+    public ChangeStreamCacheSynchronizer(MongoTemplate mongoTemplate, ResumeTokenRepository resumeTokenRepository, CacheManager cacheManager,
+                                         CategoryIdRegistry categoryIdRegistry, ProductNameIndex productNameIndex,
+                                         CacheSyncProperties cacheSyncProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.resumeTokenRepository = resumeTokenRepository;
+        this.cacheManager = cacheManager;
+        this.categoryIdRegistry = categoryIdRegistry;
+        this.productNameIndex = productNameIndex;
+        this.cacheSyncProperties = cacheSyncProperties;
+        this.productCollection = mongoTemplate.getCollectionName(Product.class);
+        this.categoryCollection = mongoTemplate.getCollectionName(Category.class);
+    }
+
+    // runs before ApplicationReadyEvent, which is when the in-memory loaders read their snapshot
+    @PostConstruct
+    public void markStart() {
+        try {
+            startAtOperationTime = currentOperationTime();
+        } catch (RuntimeException e) {
+            log.warn("Unable to read the cluster time, the change stream reloads the caches once it starts", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listener = Thread.ofPlatform().name("change-stream-cache-sync").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            // the listener notices within one max await time and stores its last token, unless Mongo is unreachable
+            listener.join(cacheSyncProperties.getMaxAwaitTime().plusMillis(RETRY_DELAY_MILLIS));
+        }
+    }
+
+    /**
+     * Applies one change of another instance, or of this one, to the local caches.
+     */
+    public void apply(ChangeStreamDocument<Document> event) {
+        String collection = event.getNamespace() == null ? null : event.getNamespace().getCollectionName();
+        String id = documentId(event);
+        OperationType operationType = event.getOperationType();
+        if (categoryCollection.equals(collection)) {
+            if (id != null) {
+                evict(CacheConfig.CATEGORIES, id);
+            }
+            evictAll(CacheConfig.CATEGORY_LIST);
+            if (id != null && operationType == OperationType.INSERT) {
+                categoryIdRegistry.register(id);
+            }
+        } else if (productCollection.equals(collection) && id != null) {
+            switch (operationType) {
+                case INSERT, REPLACE -> productNameIndex.put(id, event.getFullDocument() == null ? null : event.getFullDocument().getString(NAME));
+                case UPDATE -> {
+                    BsonValue name = event.getUpdateDescription() == null || event.getUpdateDescription().getUpdatedFields() == null
+                            ? null : event.getUpdateDescription().getUpdatedFields().get(NAME);
+                    if (name != null && name.isString()) {
+                        productNameIndex.put(id, name.asString().getValue());
+                    }
+                }
+                case DELETE -> productNameIndex.remove(id);
+                default -> log.debug("Ignoring {} change of product {}", operationType, id);
+            }
+        }
+    }
+
+    private void run() {
+        resumeToken = resumeTokenRepository.findById(cacheSyncProperties.getConsumerId())
+                .map(token -> new BsonDocument(DATA, new BsonString(token.getData())))
+                .orElse(null);
+        while (running) {
+            if (resumeToken == null && startAtOperationTime == null) {
+                try {
+                    restartFromNow();
+                } catch (RuntimeException e) {
+                    retryLater(e);
+                    continue;
+                }
+            }
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                log.info("Change stream cache sync started {}", resumeToken == null
+                        ? "at operation time " + startAtOperationTime.getValue() : "after the stored resume token");
+                while (running) {
+                    ChangeStreamDocument<Document> event = cursor.tryNext();
+                    if (event != null) {
+                        apply(event);
+                    }
+                    // advances with every batch, even when no event passed the filter
+                    resumeToken = cursor.getResumeToken() == null ? resumeToken : cursor.getResumeToken();
+                    saveResumeToken(false);
+                }
+            } catch (MongoException e) {
+                if (HISTORY_LOST_CODES.contains(e.getCode())) {
+                    // changes were missed, nothing cached before now can be trusted
+                    log.warn("Change stream cannot resume, restarting from now and reloading the caches", e);
+                    resumeToken = null;
+                    startAtOperationTime = null;
+                } else {
+                    retryLater(e);
+                }
+            } catch (RuntimeException e) {
+                retryLater(e);
+            }
+        }
+        saveResumeToken(true);
+        log.info("Change stream cache sync stopped");
+    }
+
+    // the time is taken before the caches are rebuilt, the stream then replays whatever changed during the rebuild
+    private void restartFromNow() {
+        startAtOperationTime = currentOperationTime();
+        evictAll(CacheConfig.CATEGORIES);
+        evictAll(CacheConfig.CATEGORY_LIST);
+        productNameIndex.reload();
+    }
+
+    private BsonTimestamp currentOperationTime() {
+        try (ClientSession session = mongoTemplate.getMongoDatabaseFactory().getSession(ClientSessionOptions.builder().build())) {
+            mongoTemplate.getDb().runCommand(session, new Document("ping", 1));
+            if (session.getOperationTime() == null) {
+                throw new IllegalStateException("The server reports no cluster time, change streams need a replica set");
+            }
+            return session.getOperationTime();
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        ChangeStreamIterable<Document> changeStream = mongoTemplate.getDb().watch(pipeline(), Document.class)
+                .maxAwaitTime(cacheSyncProperties.getMaxAwaitTime().toMillis(), TimeUnit.MILLISECONDS);
+        return (resumeToken == null
+                ? changeStream.startAtOperationTime(startAtOperationTime)
+                : changeStream.resumeAfter(resumeToken)).cursor();
+    }
+
+    // only category changes and product changes touching the name leave the server, stock moves are filtered out
+    private List<Bson> pipeline() {
+        String updatedName = "updateDescription.updatedFields." + NAME;
+        return List.of(
+                Aggregates.match(Filters.or(
+                        Filters.eq("ns.coll", categoryCollection),
+                        Filters.and(
+                                Filters.eq("ns.coll", productCollection),
+                                Filters.or(
+                                        Filters.in("operationType", "insert", "replace", "delete"),
+                                        Filters.exists(updatedName))))),
+                Aggregates.project(Projections.include("operationType", "ns", "documentKey", "fullDocument." + NAME, updatedName)));
+    }
+
+    private void saveResumeToken(boolean force) {
+        long now = System.nanoTime();
+        if (resumeToken == null || (!force && now - tokenSavedAt < cacheSyncProperties.getTokenSaveInterval().toNanos())) {
+            return;
+        }
+        try {
+            resumeTokenRepository.save(new ResumeToken(cacheSyncProperties.getConsumerId(), resumeToken.getString(DATA).getValue(), Instant.now()));
+            tokenSavedAt = now;
+        } catch (RuntimeException e) {
+            log.warn("Unable to store the change stream resume token, a restart replays more events", e);
+        }
+    }
+
+    private void retryLater(RuntimeException e) {
+        if (!running) {
+            return;
+        }
+        log.warn("Change stream cache sync failed, reopening in {} ms", RETRY_DELAY_MILLIS, e);
+        try {
+            Thread.sleep(RETRY_DELAY_MILLIS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evictIfPresent(key);
+        }
+    }
+
+    private void evictAll(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    private static String documentId(ChangeStreamDocument<Document> event) {
+        BsonDocument documentKey = event.getDocumentKey();
+        BsonValue id = documentKey == null ? null : documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        // ids are stored as ObjectIds since the id generator change, older documents kept their string ids
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
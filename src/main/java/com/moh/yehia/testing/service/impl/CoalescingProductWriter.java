@@ -0,0 +1,169 @@
+package com.moh.yehia.testing.service.impl;
+
+import com.moh.yehia.testing.config.ProductProperties;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.repository.ProductRepository;
+import com.moh.yehia.testing.service.design.ProductWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for product saves: a single flusher thread collects the inserts queued by concurrent callers until
+ * the window elapses or the batch is full, writes them with one unordered bulk insert and completes every caller
+ * with its own outcome. When disabled every insert is a plain save on the caller's thread.
+ */
+@Component
+@Log4j2
+public class CoalescingProductWriter implements ProductWriter {
+    private static final String DUPLICATE_KEY = "E11000";
+    // queued by close() to wake the flusher, interrupting it could abort a bulk insert that already committed
+    private static final PendingInsert SHUTDOWN = new PendingInsert(null);
+
+    private final ProductRepository productRepository;
+    private final ProductProperties.Coalesce coalesce;
+    private final BlockingQueue<PendingInsert> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    private volatile boolean running;
+
+    public CoalescingProductWriter(ProductRepository productRepository, ProductProperties productProperties) {
+        this.productRepository = productRepository;
+        this.coalesce = productProperties.getCoalesce();
+        if (coalesce.isEnabled()) {
+            running = true;
+            flusher = Thread.ofPlatform().name("product-write-coalescer").daemon().start(this::run);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public Product insert(Product product) {
+        if (!running) {
+            return productRepository.save(product);
+        }
+        PendingInsert pending = new PendingInsert(product);
+        queue.add(pending);
+        // closed while enqueuing, the flusher may already have drained the queue for the last time
+        if (!running && queue.remove(pending)) {
+            return productRepository.save(product);
+        }
+        try {
+            return pending.getResult().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for product " + product.getId() + " to be written", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (flusher != null && running) {
+            running = false;
+            queue.add(SHUTDOWN);
+            flusher.join();
+        }
+    }
+
+    private void run() {
+        List<PendingInsert> batch = new ArrayList<>(coalesce.getMaxBatchSize());
+        try {
+            flushUntilClosed(batch);
+        } catch (RuntimeException | Error e) {
+            // callers wait on their futures without a timeout, none may be left waiting on a dead flusher
+            running = false;
+            log.error("Product write coalescer failed, later saves are written one by one", e);
+            queue.drainTo(batch);
+            batch.stream()
+                    .filter(pending -> pending != SHUTDOWN)
+                    .forEach(pending -> pending.getResult().completeExceptionally(new IllegalStateException(
+                            "Product write coalescer failed before writing product " + pending.getProduct().getId(), e)));
+        }
+    }
+
+    private void flushUntilClosed(List<PendingInsert> batch) {
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + coalesce.getWindow().toNanos();
+                // close() clears the flag before queueing SHUTDOWN, so the batch is cut short as soon as the pill arrives
+                while (running && batch.size() < coalesce.getMaxBatchSize()) {
+                    // whatever is already queued joins without waiting, only an empty queue waits for the window
+                    if (queue.drainTo(batch, coalesce.getMaxBatchSize() - batch.size()) > 0) {
+                        continue;
+                    }
+                    PendingInsert next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // close() never interrupts, an interrupt from elsewhere stops the flusher as close() would
+                stopping = true;
+            }
+            stopping |= batch.removeIf(pending -> pending == SHUTDOWN);
+            flush(batch);
+        }
+        log.debug("Product write coalescer stopping");
+        // accepted inserts are still written on shutdown, a pending interrupt would abort those writes
+        Thread.interrupted();
+        queue.drainTo(batch);
+        batch.removeIf(pending -> pending == SHUTDOWN);
+        while (!batch.isEmpty()) {
+            List<PendingInsert> last = batch.subList(0, Math.min(batch.size(), coalesce.getMaxBatchSize()));
+            flush(last);
+        }
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Product> products = new ArrayList<>(batch.size());
+        batch.forEach(pending -> products.add(pending.getProduct()));
+        try {
+            Map<Integer, String> failures = productRepository.bulkInsert(products);
+            for (int position = 0; position < batch.size(); position++) {
+                String failure = failures.get(position);
+                PendingInsert pending = batch.get(position);
+                if (failure == null) {
+                    pending.getResult().complete(pending.getProduct());
+                } else {
+                    pending.getResult().completeExceptionally(failure.contains(DUPLICATE_KEY)
+                            ? new DuplicateKeyException(failure)
+                            : new DataIntegrityViolationException(failure));
+                }
+            }
+        } catch (RuntimeException e) {
+            // nothing tells which documents made it, every caller gets the error a single save would have raised
+            log.warn("Bulk insert of {} coalesced products failed", batch.size(), e);
+            batch.forEach(pending -> pending.getResult().completeExceptionally(e));
+        }
+        batch.clear();
+    }
+
+    @Value
+    private static class PendingInsert {
+        Product product;
+        CompletableFuture<Product> result = new CompletableFuture<>();
+    }
+}
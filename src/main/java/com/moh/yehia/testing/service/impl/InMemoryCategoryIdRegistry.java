@@ -0,0 +1,76 @@
+package com.moh.yehia.testing.service.impl;
+
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.repository.CategoryRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loaded in the background once the application is ready. Until then, and for categories created by other
+ * instances, a miss falls back to the database and remembers the id when it exists.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class InMemoryCategoryIdRegistry implements CategoryIdRegistry {
+    private static final int LOAD_PAGE_SIZE = 1_000;
+    private static final Set<String> ID_ONLY = Set.of("id");
+
+    private final Set<String> categoryIds = ConcurrentHashMap.newKeySet();
+    private final CategoryRepository categoryRepository;
+    private final TaskExecutor applicationTaskExecutor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        applicationTaskExecutor.execute(this::load);
+    }
+
+    void load() {
+        try {
+            Pageable pageable = PageRequest.ofSize(LOAD_PAGE_SIZE);
+            String lastId = null;
+            List<Category> page;
+            do {
+                page = KeysetPagination.afterCursor(lastId, pageable,
+                        (afterId, query) -> categoryRepository.findPageWithFields(afterId, query, ID_ONLY));
+                page.forEach(category -> categoryIds.add(category.getId()));
+                lastId = page.isEmpty() ? lastId : page.get(page.size() - 1).getId();
+            } while (page.size() == LOAD_PAGE_SIZE);
+            log.info("Category id registry loaded with {} categories", categoryIds.size());
+        } catch (RuntimeException e) {
+            log.error("Unable to load the category id registry", e);
+        }
+    }
+
+    @Override
+    public boolean exists(String categoryId) {
+        if (categoryId == null) {
+            return false;
+        }
+        if (categoryIds.contains(categoryId)) {
+            return true;
+        }
+        // unknown ids are not remembered, a category created meanwhile on another instance must still be found
+        boolean exists = categoryRepository.existsById(categoryId);
+        if (exists) {
+            categoryIds.add(categoryId);
+        }
+        return exists;
+    }
+
+    @Override
+    public void register(String categoryId) {
+        categoryIds.add(categoryId);
+    }
+}
@@ -0,0 +1,135 @@
+package com.moh.yehia.testing.service.impl;
+
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductSuggestion;
+import com.moh.yehia.testing.repository.ProductRepository;
+import com.moh.yehia.testing.service.design.ProductNameIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted map from lower cased names to products, a prefix lookup is a range scan over its keys.
+ * It is loaded in the background once the application is ready and kept current by the product service, and by the
+ * change stream of the product collection when writes of other instances must show up too.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class InMemoryProductNameIndex implements ProductNameIndex {
+    // sorts before any character, so products sharing a name stay separate entries next to each other
+    private static final char SEPARATOR = '\u0000';
+    private static final int LOAD_PAGE_SIZE = 1_000;
+    private static final Set<String> NAME_ONLY = Set.of("name");
+    // kept for products removed while a load runs, the load may not have reached them yet and must not add them back
+    private static final String DELETED = "";
+
+    private final ConcurrentSkipListMap<String, ProductSuggestion> suggestions = new ConcurrentSkipListMap<>();
+    private final Map<String, String> keysByProductId = new ConcurrentHashMap<>();
+    private final ProductRepository productRepository;
+    private final TaskExecutor applicationTaskExecutor;
+    private volatile boolean loading;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        applicationTaskExecutor.execute(this::load);
+    }
+
+    void load() {
+        load(false);
+    }
+
+    @Override
+    public void reload() {
+        load(true);
+    }
+
+    private synchronized void load(boolean clear) {
+        loading = true;
+        try {
+            if (clear) {
+                keysByProductId.clear();
+                suggestions.clear();
+            }
+            // keyset pages keep the heap flat whatever the catalog size.
+            // Products saved while loading are already indexed with their newest name and are not overwritten
+            Pageable pageable = PageRequest.ofSize(LOAD_PAGE_SIZE);
+            String lastId = null;
+            List<Product> page;
+            do {
+                page = KeysetPagination.afterCursor(lastId, pageable,
+                        (afterId, query) -> productRepository.findPageWithFields(null, afterId, query, NAME_ONLY));
+                page.forEach(product -> index(product.getId(), product.getName(), false));
+                lastId = page.isEmpty() ? lastId : page.get(page.size() - 1).getId();
+            } while (page.size() == LOAD_PAGE_SIZE);
+            log.info("Product name index loaded with {} products", suggestions.size());
+        } catch (RuntimeException e) {
+            log.error("Unable to load the product name index", e);
+        } finally {
+            loading = false;
+            keysByProductId.values().removeIf(DELETED::equals);
+        }
+    }
+
+    @Override
+    public void put(String productId, String name) {
+        index(productId, name, true);
+    }
+
+    @Override
+    public void remove(String productId) {
+        keysByProductId.compute(productId, (id, key) -> {
+            if (key != null) {
+                suggestions.remove(key);
+            }
+            return loading ? DELETED : null;
+        });
+    }
+
+    @Override
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String from = normalize(prefix);
+        List<ProductSuggestion> matches = new ArrayList<>(limit);
+        for (ProductSuggestion suggestion : suggestions.subMap(from, from + Character.MAX_VALUE).values()) {
+            if (matches.size() == limit) {
+                break;
+            }
+            matches.add(suggestion);
+        }
+        return matches;
+    }
+
+    private void index(String productId, String name, boolean replace) {
+        if (name == null) {
+            return;
+        }
+        keysByProductId.compute(productId, (id, previousKey) -> {
+            if (previousKey != null) {
+                if (!replace) {
+                    return previousKey;
+                }
+                suggestions.remove(previousKey);
+            }
+            String key = normalize(name) + SEPARATOR + id;
+            suggestions.put(key, new ProductSuggestion(id, name));
+            return key;
+        });
+    }
+
+    private static String normalize(String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+}
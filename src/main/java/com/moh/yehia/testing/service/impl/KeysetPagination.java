@@ -0,0 +1,81 @@
+package com.moh.yehia.testing.service.impl;
+
+import com.moh.yehia.testing.exception.InvalidRequestException;
+import com.moh.yehia.testing.model.CursorPage;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Helpers for keyset (cursor) pagination over the {@code _id} index.
+ * The cursor is the url-safe base64 of the last returned id, so pages never rely on skip/offset.
+ */
+final class KeysetPagination {
+    static final int MAX_LIMIT = 500;
+    private static final String MIN_OBJECT_ID = "000000000000000000000000";
+
+    private KeysetPagination() {
+    }
+
+    static Pageable firstPage(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        // always page 0 so no skip is sent; the extra element tells us whether a next page exists
+        return PageRequest.ofSize(limit + 1);
+    }
+
+    /**
+     * Runs {@code query} for the ids after {@code lastId} (null for the first page). Legacy string ids sort before ObjectIds, and a string bound
+     * never matches ObjectIds, so a page that ends on a string id carries on into the ObjectId range.
+     */
+    static <T> List<T> afterCursor(String lastId, Pageable pageable, BiFunction<String, Pageable, List<T>> query) {
+        List<T> fetched = query.apply(lastId, pageable);
+        if (lastId == null || ObjectId.isValid(lastId) || fetched.size() >= pageable.getPageSize()) {
+            return fetched;
+        }
+        List<T> items = new ArrayList<>(fetched);
+        items.addAll(query.apply(MIN_OBJECT_ID, PageRequest.ofSize(pageable.getPageSize() - fetched.size())));
+        return items;
+    }
+
+    static <T> Flux<T> afterCursorFlux(String lastId, Pageable pageable, BiFunction<String, Pageable, Flux<T>> query) {
+        Flux<T> fetched = query.apply(lastId, pageable);
+        if (lastId == null || ObjectId.isValid(lastId)) {
+            return fetched;
+        }
+        return fetched.concatWith(Flux.defer(() -> query.apply(MIN_OBJECT_ID, pageable)))
+                .take(pageable.getPageSize());
+    }
+
+    static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static <T> CursorPage<T> toPage(List<T> fetched, int limit, Function<T, String> idExtractor) {
+        if (fetched.size() <= limit) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new CursorPage<>(items, encodeCursor(idExtractor.apply(items.get(limit - 1))));
+    }
+}
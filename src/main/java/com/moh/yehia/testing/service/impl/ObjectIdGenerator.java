@@ -0,0 +1,17 @@
+package com.moh.yehia.testing.service.impl;
+
+import com.moh.yehia.testing.service.design.IdGenerator;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+/**
+ * Time ordered 12 byte ids. Spring Data stores a String id holding a valid ObjectId hex as a binary ObjectId,
+ * so new documents append to the right of the {@code _id} index while the REST representation stays a string.
+ */
+@Component
+public class ObjectIdGenerator implements IdGenerator {
+    @Override
+    public String generateId() {
+        return ObjectId.get().toHexString();
+    }
+}
@@ -1,40 +1,248 @@
 package com.moh.yehia.testing.service.impl;
 
+import com.moh.yehia.testing.config.ProductProperties;
+import com.moh.yehia.testing.exception.ConflictException;
+import com.moh.yehia.testing.exception.InvalidRequestException;
+import com.moh.yehia.testing.model.BatchItemResult;
+import com.moh.yehia.testing.model.CursorPage;
 import com.moh.yehia.testing.model.Product;
 import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.model.ProductSuggestion;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import com.moh.yehia.testing.model.StockLevel;
 import com.moh.yehia.testing.repository.ProductRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import com.moh.yehia.testing.service.design.CategorySummaryService;
+import com.moh.yehia.testing.service.design.IdGenerator;
+import com.moh.yehia.testing.service.design.ProductNameIndex;
 import com.moh.yehia.testing.service.design.ProductService;
+import com.moh.yehia.testing.service.design.ProductWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
+    static final int MAX_SEARCH_LIMIT = 100;
+
     private final ProductRepository productRepository;
+    private final Validator validator;
+    private final ProductProperties productProperties;
+    private final IdGenerator idGenerator;
+    private final ProductNameIndex productNameIndex;
+    private final CategoryIdRegistry categoryIdRegistry;
+    private final CategorySummaryService categorySummaryService;
+    private final ProductWriter productWriter;
+
+    @Override
+    public List<Product> findAll(Set<String> fields) {
+        return fields == null ? productRepository.findAll() : productRepository.findAllWithFields(fields);
+    }
+
+    @Override
+    public CursorPage<Product> findPage(int limit, String cursor, Set<String> fields) {
+        Pageable pageable = KeysetPagination.firstPage(limit);
+        String lastId = KeysetPagination.decodeCursor(cursor);
+        List<Product> products;
+        if (fields != null) {
+            products = KeysetPagination.afterCursor(lastId, pageable,
+                    (afterId, page) -> productRepository.findPageWithFields(null, afterId, page, fields));
+        } else {
+            products = lastId == null
+                    ? productRepository.findAllByOrderByIdAsc(pageable)
+                    : KeysetPagination.afterCursor(lastId, pageable, productRepository::findByIdGreaterThanOrderByIdAsc);
+        }
+        return KeysetPagination.toPage(products, limit, Product::getId);
+    }
+
+    @Override
+    public CursorPage<Product> findPageByCategory(String categoryId, int limit, String cursor, Set<String> fields) {
+        Pageable pageable = KeysetPagination.firstPage(limit);
+        String lastId = KeysetPagination.decodeCursor(cursor);
+        List<Product> products;
+        if (fields != null) {
+            products = KeysetPagination.afterCursor(lastId, pageable,
+                    (afterId, page) -> productRepository.findPageWithFields(categoryId, afterId, page, fields));
+        } else {
+            products = lastId == null
+                    ? productRepository.findByCategoryIdOrderByIdAsc(categoryId, pageable, Product.class)
+                    : KeysetPagination.afterCursor(lastId, pageable,
+                    (afterId, page) -> productRepository.findByCategoryIdAndIdGreaterThanOrderByIdAsc(categoryId, afterId, page, Product.class));
+        }
+        return KeysetPagination.toPage(products, limit, Product::getId);
+    }
 
     @Override
-    public List<Product> findAll() {
-        return productRepository.findAll();
+    public Stream<Product> streamAll() {
+        return productRepository.streamAllBy();
     }
 
     @Override
-    public Product findById(String productId) {
-        return productRepository.findById(productId).orElse(null);
+    public Product findById(String productId, Set<String> fields) {
+        return (fields == null ? productRepository.findById(productId) : productRepository.findByIdWithFields(productId, fields))
+                .orElse(null);
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        return productRepository.searchText(requireText(query, "q"), checkSearchLimit(limit));
+    }
+
+    @Override
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        return productNameIndex.suggest(requireText(prefix, "q"), checkSearchLimit(limit));
     }
 
     @Override
     public Product save(ProductRequest productRequest) {
-        Product product = Product.builder()
-                .id(UUID.randomUUID().toString())
+        requireCategory(productRequest.getCategoryId());
+        Product product = productWriter.insert(toProduct(productRequest));
+        productNameIndex.put(product.getId(), product.getName());
+        categorySummaryService.productsAdded(List.of(product));
+        return product;
+    }
+
+    @Override
+    public Product update(String productId, ProductUpdateRequest productUpdateRequest) {
+        Map<String, Object> fields = ProductUpdates.changedFields(productUpdateRequest);
+        if (fields.isEmpty()) {
+            throw new InvalidRequestException("At least one product field must be provided to update");
+        }
+        if (productUpdateRequest.getCategoryId() != null) {
+            requireCategory(productUpdateRequest.getCategoryId());
+        }
+        Product previous = productRepository.updateFields(productId, productUpdateRequest.getVersion(), fields);
+        if (previous == null) {
+            if (!productRepository.existsById(productId)) {
+                throw new InvalidRequestException("Product not found with this id: " + productId);
+            }
+            throw new ConflictException("Product " + productId + " was modified concurrently, expected version " + productUpdateRequest.getVersion());
+        }
+        Product product = ProductUpdates.updated(previous, fields);
+        productNameIndex.put(product.getId(), product.getName());
+        categorySummaryService.productChanged(previous, product);
+        return product;
+    }
+
+    @Override
+    public List<BatchItemResult> saveAll(List<ProductRequest> productRequests) {
+        ProductProperties.Batch batch = productProperties.getBatch();
+        if (productRequests.size() > batch.getMaxItems()) {
+            throw new InvalidRequestException("Batch size must not exceed " + batch.getMaxItems() + " products");
+        }
+        BatchItemResult[] results = new BatchItemResult[productRequests.size()];
+        List<Product> chunk = new ArrayList<>(Math.min(batch.getChunkSize(), productRequests.size()));
+        List<Integer> chunkIndexes = new ArrayList<>(chunk.size());
+        // a batch usually repeats a few categories, each one is checked once even when it does not exist
+        Map<String, Boolean> checkedCategories = new HashMap<>();
+        for (int index = 0; index < productRequests.size(); index++) {
+            Map<String, String> errors = validate(productRequests.get(index), checkedCategories);
+            if (!errors.isEmpty()) {
+                results[index] = new BatchItemResult(index, BatchItemResult.INVALID_REQUEST, null, errors);
+                continue;
+            }
+            chunk.add(toProduct(productRequests.get(index)));
+            chunkIndexes.add(index);
+            if (chunk.size() == batch.getChunkSize()) {
+                insertChunk(chunk, chunkIndexes, results);
+            }
+        }
+        insertChunk(chunk, chunkIndexes, results);
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public StockLevel reserveStock(String productId, int quantity) {
+        Product product = productRepository.reserveStock(productId, quantity);
+        if (product == null) {
+            // only the failed path pays for the extra lookup that tells a missing product from a sold out one
+            if (!productRepository.existsById(productId)) {
+                throw new InvalidRequestException("Product not found with this id: " + productId);
+            }
+            throw new ConflictException("Insufficient stock to reserve " + quantity + " of product: " + productId);
+        }
+        categorySummaryService.stockMoved(product, -quantity);
+        return new StockLevel(product.getId(), product.getStock());
+    }
+
+    @Override
+    public StockLevel releaseStock(String productId, int quantity) {
+        Product product = productRepository.releaseStock(productId, quantity);
+        if (product == null) {
+            throw new InvalidRequestException("Product not found with this id: " + productId);
+        }
+        categorySummaryService.stockMoved(product, quantity);
+        return new StockLevel(product.getId(), product.getStock());
+    }
+
+    private Map<String, String> validate(ProductRequest productRequest, Map<String, Boolean> checkedCategories) {
+        if (productRequest == null) {
+            return Map.of("product", "must not be null");
+        }
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(productRequest);
+        Map<String, String> errors = new HashMap<>();
+        violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        if (!errors.containsKey("categoryId")
+                && !checkedCategories.computeIfAbsent(productRequest.getCategoryId(), categoryIdRegistry::exists)) {
+            errors.put("categoryId", "category not found");
+        }
+        return errors;
+    }
+
+    private void requireCategory(String categoryId) {
+        if (!categoryIdRegistry.exists(categoryId)) {
+            throw new InvalidRequestException("Category not found with this id: " + categoryId);
+        }
+    }
+
+    private void insertChunk(List<Product> chunk, List<Integer> chunkIndexes, BatchItemResult[] results) {
+        Map<Integer, String> failures = productRepository.bulkInsert(chunk);
+        List<Product> inserted = new ArrayList<>(chunk.size() - failures.size());
+        for (int position = 0; position < chunk.size(); position++) {
+            int index = chunkIndexes.get(position);
+            String failure = failures.get(position);
+            if (failure == null) {
+                Product product = chunk.get(position);
+                productNameIndex.put(product.getId(), product.getName());
+                inserted.add(product);
+                results[index] = new BatchItemResult(index, BatchItemResult.CREATED, product.getId(), null);
+            } else {
+                results[index] = new BatchItemResult(index, BatchItemResult.FAILED, null, Map.of("product", failure));
+            }
+        }
+        categorySummaryService.productsAdded(inserted);
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    private static String requireText(String value, String parameter) {
+        if (value == null || value.isBlank()) {
+            throw new InvalidRequestException(parameter + " must not be blank");
+        }
+        return value;
+    }
+
+    private static int checkSearchLimit(int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        return limit;
+    }
+
+    private Product toProduct(ProductRequest productRequest) {
+        return Product.builder()
+                .id(idGenerator.generateId())
                 .name(productRequest.getName())
                 .description(productRequest.getDescription())
                 .price(productRequest.getPrice())
                 .categoryId(productRequest.getCategoryId())
                 .stock(productRequest.getStock())
                 .build();
-        return productRepository.save(product);
     }
 }
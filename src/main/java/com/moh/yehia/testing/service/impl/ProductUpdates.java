@@ -0,0 +1,47 @@
+package com.moh.yehia.testing.service.impl;
+
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Partial product updates shared by the servlet and the reactive service: the fields a request changes, and the
+ * product the versioned update stored.
+ */
+final class ProductUpdates {
+    private ProductUpdates() {
+    }
+
+    static Map<String, Object> changedFields(ProductUpdateRequest productUpdateRequest) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        putIfNotNull(fields, "name", productUpdateRequest.getName());
+        putIfNotNull(fields, "description", productUpdateRequest.getDescription());
+        putIfNotNull(fields, "price", productUpdateRequest.getPrice());
+        putIfNotNull(fields, "categoryId", productUpdateRequest.getCategoryId());
+        return fields;
+    }
+
+    // what updateFields stored: the previous product with the given fields set and the version incremented
+    static Product updated(Product previous, Map<String, Object> fields) {
+        Product product = Product.builder()
+                .id(previous.getId())
+                .name(previous.getName())
+                .description(previous.getDescription())
+                .price(previous.getPrice())
+                .stock(previous.getStock())
+                .categoryId(previous.getCategoryId())
+                .version(previous.getVersion() == null ? 1 : previous.getVersion() + 1)
+                .build();
+        PropertyAccessorFactory.forBeanPropertyAccess(product).setPropertyValues(fields);
+        return product;
+    }
+
+    private static void putIfNotNull(Map<String, Object> fields, String field, Object value) {
+        if (value != null) {
+            fields.put(field, value);
+        }
+    }
+}
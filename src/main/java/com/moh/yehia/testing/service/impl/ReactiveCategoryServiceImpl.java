@@ -0,0 +1,58 @@
+package com.moh.yehia.testing.service.impl;
+
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.model.CursorPage;
+import com.moh.yehia.testing.repository.reactive.ReactiveCategoryRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import com.moh.yehia.testing.service.design.IdGenerator;
+import com.moh.yehia.testing.service.design.ReactiveCategoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCategoryServiceImpl implements ReactiveCategoryService {
+    private final ReactiveCategoryRepository categoryRepository;
+    private final IdGenerator idGenerator;
+    private final CategoryIdRegistry categoryIdRegistry;
+
+    @Override
+    public Flux<Category> findAll() {
+        return categoryRepository.findAll();
+    }
+
+    @Override
+    public Mono<CursorPage<Category>> findPage(int limit, String cursor) {
+        return Mono.fromCallable(() -> KeysetPagination.firstPage(limit))
+                .flatMap(pageable -> find(pageable, KeysetPagination.decodeCursor(cursor)).collectList())
+                .map(categories -> KeysetPagination.toPage(categories, limit, Category::getId));
+    }
+
+    private Flux<Category> find(Pageable pageable, String lastId) {
+        return lastId == null
+                ? categoryRepository.findAllByOrderByIdAsc(pageable)
+                : KeysetPagination.afterCursorFlux(lastId, pageable, categoryRepository::findByIdGreaterThanOrderByIdAsc);
+    }
+
+    @Override
+    public Mono<Category> findById(String categoryId) {
+        return categoryRepository.findById(categoryId);
+    }
+
+    @Override
+    public Mono<Category> save(CategoryRequest categoryRequest) {
+        Category category = Category.builder()
+                .id(idGenerator.generateId())
+                .name(categoryRequest.getName())
+                .description(categoryRequest.getDescription())
+                .build();
+        return categoryRepository.save(category)
+                .doOnNext(savedCategory -> categoryIdRegistry.register(savedCategory.getId()));
+    }
+}
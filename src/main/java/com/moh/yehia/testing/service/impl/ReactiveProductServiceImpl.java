@@ -0,0 +1,108 @@
+package com.moh.yehia.testing.service.impl;
+
+import com.moh.yehia.testing.exception.ConflictException;
+import com.moh.yehia.testing.exception.InvalidRequestException;
+import com.moh.yehia.testing.model.CursorPage;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import com.moh.yehia.testing.repository.reactive.ReactiveProductRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import com.moh.yehia.testing.service.design.CategorySummaryService;
+import com.moh.yehia.testing.service.design.IdGenerator;
+import com.moh.yehia.testing.service.design.ProductNameIndex;
+import com.moh.yehia.testing.service.design.ReactiveProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+    private final ReactiveProductRepository productRepository;
+    private final IdGenerator idGenerator;
+    private final CategoryIdRegistry categoryIdRegistry;
+    private final ProductNameIndex productNameIndex;
+    private final CategorySummaryService categorySummaryService;
+
+    @Override
+    public Flux<Product> findAll() {
+        return productRepository.findAll();
+    }
+
+    @Override
+    public Mono<CursorPage<Product>> findPage(int limit, String cursor) {
+        return Mono.fromCallable(() -> KeysetPagination.firstPage(limit))
+                .flatMap(pageable -> find(pageable, KeysetPagination.decodeCursor(cursor)).collectList())
+                .map(products -> KeysetPagination.toPage(products, limit, Product::getId));
+    }
+
+    private Flux<Product> find(Pageable pageable, String lastId) {
+        return lastId == null
+                ? productRepository.findAllByOrderByIdAsc(pageable)
+                : KeysetPagination.afterCursorFlux(lastId, pageable, productRepository::findByIdGreaterThanOrderByIdAsc);
+    }
+
+    @Override
+    public Mono<Product> findById(String productId) {
+        return productRepository.findById(productId);
+    }
+
+    @Override
+    public Mono<Product> save(ProductRequest productRequest) {
+        Product product = Product.builder()
+                .id(idGenerator.generateId())
+                .name(productRequest.getName())
+                .description(productRequest.getDescription())
+                .price(productRequest.getPrice())
+                .categoryId(productRequest.getCategoryId())
+                .stock(productRequest.getStock())
+                .build();
+        // the registry, the name index and the summaries are shared with the servlet stack, a registry miss and the
+        // summary writes reach the database, so they block off the event loop
+        return Mono.fromCallable(() -> categoryIdRegistry.exists(productRequest.getCategoryId()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(exists -> exists
+                        ? productRepository.save(product)
+                        : Mono.error(new InvalidRequestException("Category not found with this id: " + productRequest.getCategoryId())))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(saved -> {
+                    productNameIndex.put(saved.getId(), saved.getName());
+                    categorySummaryService.productsAdded(List.of(saved));
+                });
+    }
+
+    @Override
+    public Mono<Product> update(String productId, ProductUpdateRequest productUpdateRequest) {
+        Map<String, Object> fields = ProductUpdates.changedFields(productUpdateRequest);
+        if (fields.isEmpty()) {
+            return Mono.error(new InvalidRequestException("At least one product field must be provided to update"));
+        }
+        String categoryId = productUpdateRequest.getCategoryId();
+        return Mono.fromCallable(() -> categoryId == null || categoryIdRegistry.exists(categoryId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(exists -> exists
+                        ? productRepository.updateFields(productId, productUpdateRequest.getVersion(), fields)
+                        : Mono.error(new InvalidRequestException("Category not found with this id: " + categoryId)))
+                // only the failed path pays for the extra lookup that tells a missing product from a stale version
+                .switchIfEmpty(Mono.defer(() -> productRepository.existsById(productId))
+                        .flatMap(exists -> Mono.error(exists
+                                ? new ConflictException("Product " + productId + " was modified concurrently, expected version " + productUpdateRequest.getVersion())
+                                : new InvalidRequestException("Product not found with this id: " + productId))))
+                .publishOn(Schedulers.boundedElastic())
+                .map(previous -> {
+                    Product product = ProductUpdates.updated(previous, fields);
+                    productNameIndex.put(product.getId(), product.getName());
+                    categorySummaryService.productChanged(previous, product);
+                    return product;
+                });
+    }
+}
@@ -0,0 +1,109 @@
+package com.moh.yehia.testing.aop;
+
+import com.moh.yehia.testing.config.ProductProperties;
+import com.moh.yehia.testing.config.TimingProperties;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.repository.ProductRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import com.moh.yehia.testing.service.design.CategorySummaryService;
+import com.moh.yehia.testing.service.design.ProductService;
+import com.moh.yehia.testing.service.impl.CoalescingProductWriter;
+import com.moh.yehia.testing.service.impl.InMemoryProductNameIndex;
+import com.moh.yehia.testing.service.impl.ObjectIdGenerator;
+import com.moh.yehia.testing.service.impl.ProductServiceImpl;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+class AppLoggerTest {
+    private SimpleMeterRegistry meterRegistry;
+    private AppLogger appLogger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        appLogger = new AppLogger(meterRegistry, new TimingProperties());
+    }
+
+    @Test
+    void shouldRecordTimerPerServiceMethod() {
+        // mock
+        ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+        Product product = Product.builder().id(UUID.randomUUID().toString()).build();
+        BDDMockito.given(productRepository.findById(product.getId())).willReturn(Optional.of(product));
+        ProductService productService = proxy(new ProductServiceImpl(productRepository, Validation.buildDefaultValidatorFactory().getValidator(), new ProductProperties(), new ObjectIdGenerator(), new InMemoryProductNameIndex(productRepository, Runnable::run), Mockito.mock(CategoryIdRegistry.class), Mockito.mock(CategorySummaryService.class), new CoalescingProductWriter(productRepository, new ProductProperties())));
+        // when
+        productService.findById(product.getId());
+        productService.findById(product.getId());
+        // then or assertions
+        Timer timer = meterRegistry.get(AppLogger.TIMER_NAME)
+                .tag("layer", "service")
+                .tag("class", "ProductServiceImpl")
+                .tag("method", "findById")
+                .timer();
+        Assertions.assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTagRepositoryCallsWithTheApplicationInterface() {
+        // mock
+        ProductRepository springDataRepository = (ProductRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ProductRepository.class}, (target, method, args) -> Optional.empty());
+        ProductRepository productRepository = proxy(springDataRepository);
+        // when
+        productRepository.findById("123456");
+        // then or assertions
+        Assertions.assertThat(meterRegistry.get(AppLogger.TIMER_NAME)
+                        .tag("layer", "repository")
+                        .tag("class", "ProductRepository")
+                        .tag("method", "findById")
+                        .timer()
+                        .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecordTimingWhenCallFails() {
+        // mock
+        ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+        BDDMockito.given(productRepository.findAll()).willThrow(new IllegalStateException("mongo is down"));
+        ProductService productService = proxy(new ProductServiceImpl(productRepository, Validation.buildDefaultValidatorFactory().getValidator(), new ProductProperties(), new ObjectIdGenerator(), new InMemoryProductNameIndex(productRepository, Runnable::run), Mockito.mock(CategoryIdRegistry.class), Mockito.mock(CategorySummaryService.class), new CoalescingProductWriter(productRepository, new ProductProperties())));
+        // when
+        Assertions.assertThatThrownBy(productService::findAll).isInstanceOf(IllegalStateException.class);
+        // then or assertions
+        Assertions.assertThat(meterRegistry.get(AppLogger.TIMER_NAME).tag("method", "findAll").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldSummarizeLargeArgumentsInsteadOfLoggingThemInFull() {
+        // mock
+        List<Product> products = Collections.nCopies(5_000, Product.builder().id(UUID.randomUUID().toString()).build());
+        String longText = "x".repeat(AppLogger.MAX_ARGUMENT_LENGTH + 50);
+        // when
+        String description = AppLogger.describeArguments(new Object[]{products, new byte[64], longText, 7, null});
+        // then or assertions
+        Assertions.assertThat(description)
+                .isEqualTo("[CopiesList(size=5000), byte[](length=64), " + "x".repeat(AppLogger.MAX_ARGUMENT_LENGTH) + "..., 7, null]");
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(!Proxy.isProxyClass(target.getClass()));
+        proxyFactory.addAspect(appLogger);
+        return (T) proxyFactory.getProxy();
+    }
+}
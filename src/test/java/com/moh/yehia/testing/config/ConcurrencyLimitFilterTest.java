@@ -0,0 +1,78 @@
+package com.moh.yehia.testing.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moh.yehia.testing.model.ApiError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+class ConcurrencyLimitFilterTest {
+    private final ObjectMapper objectMapper = new ObjectMapperConfig().objectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldShedWritesBeyondTheLimitWithRetryAfterAndApiError() throws Exception {
+        // mock
+        ConcurrencyLimitProperties concurrencyLimitProperties = new ConcurrencyLimitProperties();
+        concurrencyLimitProperties.setRetryAfter(Duration.ofMillis(1500));
+        concurrencyLimitProperties.getWrites().setInitialLimit(1);
+        concurrencyLimitProperties.getWrites().setMinLimit(1);
+        concurrencyLimitProperties.getWrites().setMaxLimit(1);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(concurrencyLimitProperties, meterRegistry, new ModelCodecs(objectMapper));
+        MockHttpServletResponse shedResponse = new MockHttpServletResponse();
+        MockHttpServletResponse readResponse = new MockHttpServletResponse();
+        // when, a write arriving while the only write permit is taken is shed, a read still has its own limit
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/products"), new MockHttpServletResponse(), (request, response) -> {
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/products"), shedResponse, new MockFilterChain());
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products"), readResponse, new MockFilterChain());
+        });
+        MockHttpServletResponse laterResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/products"), laterResponse, new MockFilterChain());
+        // then or assertions
+        Assertions.assertThat(shedResponse.getStatus()).isEqualTo(503);
+        Assertions.assertThat(shedResponse.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        Assertions.assertThat(objectMapper.readValue(shedResponse.getContentAsByteArray(), ApiError.class))
+                .isEqualTo(new ApiError("SERVICE_UNAVAILABLE", "Too many concurrent requests, retry later", "uri=/api/v1/products"));
+        Assertions.assertThat(readResponse.getStatus()).isEqualTo(200);
+        Assertions.assertThat(laterResponse.getStatus()).isEqualTo(200);
+        Assertions.assertThat(meterRegistry.get(ConcurrencyLimitFilter.REJECTED_COUNTER_NAME).tag("kind", "write").counter().count()).isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get(ConcurrencyLimitFilter.REJECTED_COUNTER_NAME).tag("kind", "read").counter().count()).isZero();
+        Assertions.assertThat(meterRegistry.get(ConcurrencyLimitFilter.LIMIT_GAUGE_NAME).tag("kind", "write").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRaiseTheLimitWhileLatencyHoldsAndLowerItWhenRequestsQueue() {
+        // mock
+        ConcurrencyLimitProperties.Limit properties = new ConcurrencyLimitProperties().getWrites();
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(properties);
+        // when
+        saturate(limit, 20, TimeUnit.MILLISECONDS.toNanos(10));
+        int grownLimit = limit.getLimit();
+        saturate(limit, 1, TimeUnit.MILLISECONDS.toNanos(100));
+        int shrunkLimit = limit.getLimit();
+        // then or assertions
+        Assertions.assertThat(grownLimit).isGreaterThan(properties.getInitialLimit());
+        Assertions.assertThat(shrunkLimit).isLessThan(grownLimit).isGreaterThanOrEqualTo(properties.getMinLimit());
+        Assertions.assertThat(limit.getInFlight()).isZero();
+    }
+
+    // takes every permit, then completes the requests one by one with the given latency
+    private static void saturate(GradientConcurrencyLimit limit, int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(rttNanos);
+            }
+        }
+    }
+}
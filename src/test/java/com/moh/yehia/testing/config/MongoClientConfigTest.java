@@ -0,0 +1,35 @@
+package com.moh.yehia.testing.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.connection.ConnectionPoolSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+class MongoClientConfigTest {
+    private final MongoClientConfig mongoClientConfig = new MongoClientConfig();
+
+    @Test
+    void shouldKeepPoolOptionsOfTheUriUnlessTheyAreSetExplicitly() {
+        // mock
+        MongoClientProperties mongoClientProperties = new MongoClientProperties();
+        mongoClientProperties.getPool().setMinSize(5);
+        mongoClientProperties.getPool().setMaxConnectionIdleTime(Duration.ofMinutes(1));
+        MongoCommandMonitor mongoCommandMonitor = mongoClientConfig.mongoCommandMonitor(new SimpleMeterRegistry(), mongoClientProperties);
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://localhost/catalog?maxPoolSize=7&waitQueueTimeoutMS=500&minPoolSize=1"));
+        // when
+        mongoClientConfig.mongoClientSettingsCustomizer(mongoClientProperties, mongoCommandMonitor).customize(builder);
+        // then or assertions
+        ConnectionPoolSettings poolSettings = builder.build().getConnectionPoolSettings();
+        Assertions.assertThat(poolSettings.getMaxSize()).isEqualTo(7);
+        Assertions.assertThat(poolSettings.getMaxWaitTime(TimeUnit.MILLISECONDS)).isEqualTo(500);
+        Assertions.assertThat(poolSettings.getMinSize()).isEqualTo(5);
+        Assertions.assertThat(poolSettings.getMaxConnectionIdleTime(TimeUnit.SECONDS)).isEqualTo(60);
+        Assertions.assertThat(poolSettings.getConnectionPoolListeners()).contains(mongoCommandMonitor);
+    }
+}
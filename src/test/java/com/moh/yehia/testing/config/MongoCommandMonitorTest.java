@@ -0,0 +1,56 @@
+package com.moh.yehia.testing.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+class MongoCommandMonitorTest {
+    private static final ServerId SERVER_ID = new ServerId(new ClusterId(), new ServerAddress("localhost", 27017));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MongoCommandMonitor mongoCommandMonitor = new MongoCommandMonitor(meterRegistry, Duration.ofMillis(100));
+
+    @Test
+    void shouldTimeConnectionCheckoutsPerOutcome() {
+        // when
+        mongoCommandMonitor.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(SERVER_ID), 1, TimeUnit.MILLISECONDS.toNanos(3)));
+        mongoCommandMonitor.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(SERVER_ID), 2, TimeUnit.MILLISECONDS.toNanos(5)));
+        mongoCommandMonitor.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(SERVER_ID, 3,
+                ConnectionCheckOutFailedEvent.Reason.TIMEOUT, TimeUnit.SECONDS.toNanos(2)));
+        // then or assertions
+        Assertions.assertThat(meterRegistry.get(MongoCommandMonitor.CHECKOUT_TIMER_NAME)
+                        .tag("server.address", "localhost:27017")
+                        .tag("outcome", "success")
+                        .timer()
+                        .totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(8);
+        Assertions.assertThat(meterRegistry.get(MongoCommandMonitor.CHECKOUT_TIMER_NAME).tag("outcome", "timeout").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldReduceFiltersToTheirShape() {
+        // mock
+        BsonDocument find = BsonDocument.parse("{find: 'products', filter: {categoryId: 'kitchen', stock: {$gte: 5}, _id: {$in: ['a', 'b', 'c']}}, limit: 20}");
+        BsonDocument update = BsonDocument.parse("{update: 'products', updates: [{q: {_id: 'a', version: 3}, u: {$set: {name: 'secret'}}}]}");
+        BsonDocument aggregate = BsonDocument.parse("{aggregate: 'products', pipeline: [{$match: {categoryId: {$ne: null}}}, {$group: {_id: '$categoryId'}}]}");
+        // when, then or assertions
+        Assertions.assertThat(MongoCommandMonitor.filterShape(find))
+                .isEqualTo("{\"filter\": {\"categoryId\": \"?\", \"stock\": {\"$gte\": \"?\"}, \"_id\": {\"$in\": [\"?\"]}}}");
+        Assertions.assertThat(MongoCommandMonitor.filterShape(update))
+                .isEqualTo("{\"q\": {\"_id\": \"?\", \"version\": \"?\"}}");
+        Assertions.assertThat(MongoCommandMonitor.filterShape(aggregate))
+                .isEqualTo("{\"pipeline\": [{\"$match\": {\"categoryId\": {\"$ne\": \"?\"}}}, {\"$group\": {\"_id\": \"?\"}}]}");
+        Assertions.assertThat(MongoCommandMonitor.filterShape(BsonDocument.parse("{ping: 1}"))).isEqualTo("{}");
+    }
+}
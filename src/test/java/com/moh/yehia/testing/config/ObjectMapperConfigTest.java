@@ -0,0 +1,55 @@
+package com.moh.yehia.testing.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.model.CursorPage;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+class ObjectMapperConfigTest {
+    private final ObjectMapper objectMapper = new ObjectMapperConfig().objectMapper();
+
+    @Test
+    void shouldWriteProductsExactlyAsTheGoldenFile() throws IOException {
+        // mock
+        CursorPage<Product> page = new CursorPage<>(List.of(
+                new Product("652f1b0c8e4b2a1d3c4e5f60", "Espresso machine", "Stainless \"pro\" edition – 15 bar", new BigDecimal("249.90"), 12, "652f1b0c8e4b2a1d3c4e5f00", 3L),
+                new Product("652f1b0c8e4b2a1d3c4e5f61", "Gift card", null, new BigDecimal("1E+2"), 0, null, null)
+        ), "NjUyZjFiMGM4ZTRiMmExZDNjNGU1ZjYx");
+        // when
+        byte[] json = objectMapper.writeValueAsBytes(page);
+        // then or assertions
+        Assertions.assertThat(json).isEqualTo(golden("product-page.json"));
+    }
+
+    @Test
+    void shouldWriteCategoriesExactlyAsTheGoldenFile() throws IOException {
+        // mock
+        List<Category> categories = List.of(new Category("652f1b0c8e4b2a1d3c4e5f00", "Kitchen", "Everything for the kitchen", 0L));
+        // when
+        byte[] json = objectMapper.writeValueAsBytes(categories);
+        // then or assertions
+        Assertions.assertThat(json).isEqualTo(golden("categories.json"));
+    }
+
+    @Test
+    void shouldReadProductRequestFromTheGoldenFile() throws IOException {
+        // when
+        ProductRequest productRequest = objectMapper.readValue(golden("product-request.json"), ProductRequest.class);
+        // then or assertions
+        Assertions.assertThat(productRequest)
+                .isEqualTo(new ProductRequest("Espresso machine", "Stainless edition", new BigDecimal("249.90"), "652f1b0c8e4b2a1d3c4e5f00", 12));
+        Assertions.assertThat(objectMapper.writeValueAsBytes(productRequest)).isEqualTo(golden("product-request.json"));
+    }
+
+    private static byte[] golden(String name) throws IOException {
+        return new ClassPathResource("golden/" + name).getContentAsByteArray();
+    }
+}
@@ -0,0 +1,33 @@
+package com.moh.yehia.testing.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+class ProductPropertiesTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(ProductPropertiesConfiguration.class);
+
+    @Test
+    void shouldRejectNonPositiveBatchAndCoalesceSettingsAtStartup() {
+        // when, then or assertions
+        contextRunner.withPropertyValues("app.products.batch.chunk-size=0")
+                .run(context -> Assertions.assertThat(context).hasFailed()
+                        .getFailure().rootCause().hasMessageContaining("batch.chunkSize"));
+        contextRunner.withPropertyValues("app.products.batch.max-items=-1")
+                .run(context -> Assertions.assertThat(context).hasFailed());
+        contextRunner.withPropertyValues("app.products.coalesce.max-batch-size=0")
+                .run(context -> Assertions.assertThat(context).hasFailed()
+                        .getFailure().rootCause().hasMessageContaining("coalesce.maxBatchSize"));
+        contextRunner.withPropertyValues("app.products.coalesce.window=0ms")
+                .run(context -> Assertions.assertThat(context).hasFailed()
+                        .getFailure().rootCause().hasMessageContaining("coalesce.window"));
+        contextRunner.withPropertyValues("app.products.batch.chunk-size=500", "app.products.batch.max-items=5000")
+                .run(context -> Assertions.assertThat(context.getBean(ProductProperties.class).getBatch().getChunkSize()).isEqualTo(500));
+    }
+
+    @EnableConfigurationProperties(ProductProperties.class)
+    static class ProductPropertiesConfiguration {
+    }
+}
@@ -6,7 +6,12 @@ import com.moh.yehia.testing.asserts.CategoryAssert;
 import com.moh.yehia.testing.model.ApiError;
 import com.moh.yehia.testing.model.Category;
 import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.model.CategorySummary;
+import com.moh.yehia.testing.model.CursorPage;
+import com.moh.yehia.testing.model.Product;
 import com.moh.yehia.testing.service.design.CategoryService;
+import com.moh.yehia.testing.service.design.CategorySummaryService;
+import com.moh.yehia.testing.service.design.ProductService;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -19,9 +24,11 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
 
 class CategoryControllerTest extends GlobalSpringContext {
@@ -29,6 +36,12 @@ class CategoryControllerTest extends GlobalSpringContext {
     @MockBean
     private CategoryService categoryService;
 
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private CategorySummaryService categorySummaryService;
+
     private final String API_URL = "/api/v1/categories";
 
     private static Faker faker;
@@ -57,10 +70,98 @@ class CategoryControllerTest extends GlobalSpringContext {
         );
     }
 
+    @Test
+    void shouldReturnNotModifiedWhenCategoriesDidNotChange() throws Exception {
+        // mock
+        List<Category> expectedCategories = populateRandomCategories();
+        // given
+        BDDMockito.given(categoryService.findAll()).willReturn(expectedCategories);
+        // when or perform the mock
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(API_URL))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "max-age=60, public"))
+                .andExpect(MockMvcResultMatchers.header().string("Vary", "Accept"))
+                .andReturn();
+        String etag = mvcResult.getResponse().getHeader("ETag");
+        Assertions.assertThat(etag).startsWith("W/\"");
+        // then or assertions
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL)
+                                .header("If-None-Match", etag)
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", etag))
+                .andExpect(MockMvcResultMatchers.header().string("Vary", "Accept"))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        expectedCategories.get(0).setVersion(1L);
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL)
+                                .header("If-None-Match", etag)
+                ).andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    void shouldReturnOnlySelectedCategoryFields() throws Exception {
+        // mock
+        CursorPage<Category> expectedPage = new CursorPage<>(populateRandomCategories(), "bmV4dA");
+        // given
+        BDDMockito.given(categoryService.findPage(10, null, Set.of("name"))).willReturn(expectedPage);
+        // when or perform the mock
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL)
+                                .param("limit", "10")
+                                .param("fields", "name")
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value("bmV4dA"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].name").value(expectedPage.getItems().get(0).getName()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].description").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnCategoriesPageWhenLimitIsGiven() throws Exception {
+        // mock
+        CursorPage<Category> expectedPage = new CursorPage<>(populateRandomCategories(), null);
+        // given
+        BDDMockito.given(categoryService.findPage(10, null, null)).willReturn(expectedPage);
+        // when or perform the mock
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL)
+                                .param("limit", "10")
+                                .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    void shouldReturnAndRebuildCategorySummaries() throws Exception {
+        // mock
+        List<CategorySummary> summaries = List.of(new CategorySummary(UUID.randomUUID().toString(), 3, 15, new BigDecimal("750.40")));
+        // given
+        BDDMockito.given(categorySummaryService.findAll()).willReturn(summaries);
+        BDDMockito.given(categorySummaryService.rebuild()).willReturn(summaries);
+        // when, perform & assert
+        mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/summary"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].categoryId").value(summaries.get(0).getCategoryId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].productCount").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].stockUnits").value(15))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].stockValue").value(750.40));
+        mockMvc.perform(MockMvcRequestBuilders.post(API_URL + "/summary/rebuild"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1));
+        BDDMockito.then(categorySummaryService).should().rebuild();
+    }
+
     @Test
     void shouldReturnCategoryWhenValidId() throws Exception {
         // mock
-        Category category = new Category(UUID.randomUUID().toString(), "random name", "random category description");
+        Category category = Category.builder().id(UUID.randomUUID().toString()).name("random name").description("random category description").build();
         // given
         BDDMockito.given(categoryService.findById(ArgumentMatchers.anyString())).willReturn(category);
         // when, perform & assert
@@ -94,11 +195,43 @@ class CategoryControllerTest extends GlobalSpringContext {
                 .hasPath(expectedApiError.getPath());
     }
 
+    @Test
+    void shouldReturnProductsPageOfCategory() throws Exception {
+        // mock
+        Category category = Category.builder().id(UUID.randomUUID().toString()).name("random name").description("random category description").build();
+        List<Product> products = List.of(Product.builder().id(UUID.randomUUID().toString()).name("product").categoryId(category.getId()).build());
+        // given
+        BDDMockito.given(categoryService.findById(category.getId())).willReturn(category);
+        BDDMockito.given(productService.findPageByCategory(category.getId(), 20, null, null)).willReturn(new CursorPage<>(products, null));
+        // when, perform & assert
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL + "/{id}/products", category.getId())
+                                .param("limit", "20")
+                                .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].categoryId").value(category.getId()));
+    }
+
+    @Test
+    void shouldThrowAnExceptionWhenListingProductsOfUnknownCategory() throws Exception {
+        // given
+        BDDMockito.given(categoryService.findById(ArgumentMatchers.anyString())).willReturn(null);
+        // when, perform & assert
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL + "/{id}/products", "123456")
+                                .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Category not found with this id: 123456"));
+        BDDMockito.then(productService).shouldHaveNoInteractions();
+    }
+
     @Test
     void shouldSaveCategoryWhenValidData() throws Exception {
         // mock
         CategoryRequest categoryRequest = new CategoryRequest("name", "some random description");
-        Category category = new Category(UUID.randomUUID().toString(), categoryRequest.getName(), categoryRequest.getDescription());
+        Category category = Category.builder().id(UUID.randomUUID().toString()).name(categoryRequest.getName()).description(categoryRequest.getDescription()).build();
         // given
         BDDMockito.given(categoryService.save(ArgumentMatchers.any(CategoryRequest.class))).willReturn(category);
         // when, verify & assertions
@@ -1,17 +1,28 @@
 package com.moh.yehia.testing.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.github.javafaker.Faker;
 import com.moh.yehia.testing.asserts.ApiErrorAssert;
 import com.moh.yehia.testing.asserts.ProductAssert;
+import com.moh.yehia.testing.exception.ConflictException;
 import com.moh.yehia.testing.model.ApiError;
+import com.moh.yehia.testing.model.BatchItemResult;
+import com.moh.yehia.testing.model.CursorPage;
 import com.moh.yehia.testing.model.Product;
 import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.model.ProductSuggestion;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import com.moh.yehia.testing.model.StockLevel;
+import com.moh.yehia.testing.model.StockRequest;
 import com.moh.yehia.testing.service.design.ProductService;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
+import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
@@ -23,6 +34,8 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 class ProductControllerTest extends GlobalSpringContext {
@@ -44,7 +57,7 @@ class ProductControllerTest extends GlobalSpringContext {
         // mock
         List<Product> expectedProducts = populateRandomProducts();
         // given
-        BDDMockito.given(productService.findAll()).willReturn(expectedProducts);
+        BDDMockito.given(productService.findAll(null)).willReturn(expectedProducts);
         // when or assertions or perform mocks
         MvcResult mvcResult = mockMvc.perform(
                         MockMvcRequestBuilders.get(API_URL)
@@ -58,12 +71,173 @@ class ProductControllerTest extends GlobalSpringContext {
         );
     }
 
+    @Test
+    void shouldReturnProductsPageWhenLimitIsGiven() throws Exception {
+        // mock
+        CursorPage<Product> expectedPage = new CursorPage<>(populateRandomProducts(), "bmV4dA");
+        // given
+        BDDMockito.given(productService.findPage(3, "Y3Vyc29y", null)).willReturn(expectedPage);
+        // when or assertions
+        MvcResult mvcResult = mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL)
+                                .param("limit", "3")
+                                .param("cursor", "Y3Vyc29y")
+                                .contentType(MediaType.APPLICATION_JSON)
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value("bmV4dA"))
+                .andReturn();
+        Assertions.assertThat(mvcResult.getResponse().getContentAsString()).isEqualToIgnoringWhitespace(
+                objectMapper.writeValueAsString(expectedPage)
+        );
+        BDDMockito.then(productService).should(Mockito.never()).findAll(ArgumentMatchers.any());
+    }
+
+    @Test
+    void shouldReturnOnlySelectedFieldsWhenFieldsAreGiven() throws Exception {
+        // mock
+        List<Product> expectedProducts = populateRandomProducts();
+        expectedProducts.forEach(product -> product.setDescription(faker.lorem().paragraph(20)));
+        Set<String> fields = Set.of("id", "name", "price");
+        // given
+        BDDMockito.given(productService.findAll(null)).willReturn(expectedProducts);
+        BDDMockito.given(productService.findAll(fields)).willReturn(expectedProducts);
+        // when or assertions
+        MvcResult fullResult = mockMvc.perform(MockMvcRequestBuilders.get(API_URL))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn();
+        MvcResult sparseResult = mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL)
+                                .param("fields", "id,name,price")
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value(expectedProducts.get(0).getName()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].price").exists())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].description").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].stock").doesNotExist())
+                .andReturn();
+        int fullSize = fullResult.getResponse().getContentAsByteArray().length;
+        int sparseSize = sparseResult.getResponse().getContentAsByteArray().length;
+        Assertions.assertThat(sparseSize)
+                .as("payload with fields=id,name,price is %d bytes against %d bytes for full products", sparseSize, fullSize)
+                .isLessThan(fullSize / 4);
+    }
+
+    @Test
+    void shouldReturnProductsAsCborWhenAccepted() throws Exception {
+        // mock
+        List<Product> expectedProducts = populateRandomProducts();
+        ObjectMapper cborMapper = new CBORMapper();
+        // given
+        BDDMockito.given(productService.findAll(null)).willReturn(expectedProducts);
+        // when or perform the mock
+        MvcResult jsonResult = mockMvc.perform(MockMvcRequestBuilders.get(API_URL))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn();
+        MvcResult cborResult = mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL)
+                                .accept(MediaType.APPLICATION_CBOR)
+                ).andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        // then or assertions
+        byte[] cbor = cborResult.getResponse().getContentAsByteArray();
+        Assertions.assertThat(cborMapper.readValue(cbor, Product[].class))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(expectedProducts);
+        Assertions.assertThat(cbor.length).isLessThan(jsonResult.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    void shouldAcceptAndReturnSmileBodies() throws Exception {
+        // mock
+        ProductRequest productRequest = populateProductRequest();
+        Product expectedProduct = populateProductFromProductRequest(productRequest);
+        ObjectMapper smileMapper = new SmileMapper();
+        MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+        // given
+        BDDMockito.given(productService.save(productRequest)).willReturn(expectedProduct);
+        // when or perform the mock
+        MvcResult mvcResult = mockMvc.perform(
+                        MockMvcRequestBuilders.post(API_URL)
+                                .contentType(smile)
+                                .accept(smile)
+                                .content(smileMapper.writeValueAsBytes(productRequest))
+                ).andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.content().contentType(smile))
+                .andReturn();
+        // then or assertions
+        Assertions.assertThat(smileMapper.readValue(mvcResult.getResponse().getContentAsByteArray(), Product.class))
+                .usingRecursiveComparison()
+                .isEqualTo(expectedProduct);
+    }
+
+    @Test
+    void shouldRejectUnknownFields() throws Exception {
+        // assertion
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL + "/{id}", "123456")
+                                .param("fields", "id,secret")
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Unknown field: secret, available fields are [categoryId, description, id, name, price, stock, version]"));
+        BDDMockito.then(productService).should(Mockito.never()).findById(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+    }
+
+    @Test
+    void shouldReturnSearchResultsAndSuggestions() throws Exception {
+        // mock
+        List<Product> expectedProducts = populateRandomProducts();
+        List<ProductSuggestion> expectedSuggestions = List.of(new ProductSuggestion(expectedProducts.get(0).getId(), expectedProducts.get(0).getName()));
+        // given
+        BDDMockito.given(productService.search("coffee machine", 20)).willReturn(expectedProducts);
+        BDDMockito.given(productService.suggest("cof", 5)).willReturn(expectedSuggestions);
+        // when or assertions
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL + "/search")
+                                .param("q", "coffee machine")
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(3));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL + "/suggestions")
+                                .param("q", "cof")
+                                .param("limit", "5")
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].productId").value(expectedProducts.get(0).getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value(expectedProducts.get(0).getName()));
+    }
+
+    @Test
+    void shouldExportAllProductsAsNdjson() throws Exception {
+        // mock
+        List<Product> expectedProducts = populateRandomProducts();
+        // given
+        BDDMockito.given(productService.streamAll()).willReturn(expectedProducts.stream());
+        // when or assertions
+        MvcResult mvcResult = mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL + "/export")
+                                .accept(MediaType.APPLICATION_NDJSON)
+                ).andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON));
+        // then or assertions, every document ends its own line and no line starts with a separator
+        StringBuilder expectedBody = new StringBuilder();
+        for (Product product : expectedProducts) {
+            expectedBody.append(objectMapper.writeValueAsString(product)).append('\n');
+        }
+        Assertions.assertThat(mvcResult.getResponse().getContentAsString()).isEqualTo(expectedBody.toString());
+    }
+
     @Test
     void shouldReturnProductWhenValidId() throws Exception {
         // mock
         Product product = populateRandomProduct();
         // given
-        BDDMockito.given(productService.findById(ArgumentMatchers.anyString())).willReturn(product);
+        BDDMockito.given(productService.findById(ArgumentMatchers.anyString(), ArgumentMatchers.isNull())).willReturn(product);
         // assertion
         mockMvc.perform(
                         MockMvcRequestBuilders.get(API_URL + "/{id}", "123456")
@@ -73,10 +247,93 @@ class ProductControllerTest extends GlobalSpringContext {
                 .andExpect(ResponseBodyMatchers.responseBody().containsObjectAsJson(product, Product.class));
     }
 
+    @Test
+    void shouldReturnNotModifiedFromOneReadWhenVersionDidNotChange() throws Exception {
+        // mock
+        Product product = populateRandomProduct();
+        product.setVersion(4L);
+        product.setStock(10);
+        // given
+        BDDMockito.given(productService.findById(product.getId(), null)).willReturn(product);
+        // when or perform the mock
+        mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/{id}", product.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "W/\"" + product.getId() + "-4-10\""))
+                .andExpect(MockMvcResultMatchers.header().string("Vary", "Accept"))
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "no-cache"));
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL + "/{id}", product.getId())
+                                .header("If-None-Match", "\"" + product.getId() + "-4-10\"")
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("Vary", "Accept"))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        // then or assertions
+        BDDMockito.then(productService).should(Mockito.times(2)).findById(product.getId(), null);
+        product.setVersion(5L);
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL + "/{id}", product.getId())
+                                .header("If-None-Match", "\"" + product.getId() + "-4-10\"")
+                ).andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "W/\"" + product.getId() + "-5-10\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version").value(5));
+        BDDMockito.then(productService).should(Mockito.times(3)).findById(ArgumentMatchers.eq(product.getId()), ArgumentMatchers.any());
+    }
+
+    @Test
+    void shouldReturnProductAgainAfterStockReservationWithoutVersionChange() throws Exception {
+        // mock
+        Product product = populateRandomProduct();
+        product.setVersion(4L);
+        product.setStock(10);
+        // given
+        BDDMockito.given(productService.findById(product.getId(), null)).willReturn(product);
+        BDDMockito.given(productService.reserveStock(product.getId(), 2)).will(invocation -> {
+            // reservations $inc the stock only, the version stays where it was
+            product.setStock(8);
+            return new StockLevel(product.getId(), 8);
+        });
+        // when or perform the mock
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get(API_URL + "/{id}", product.getId()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post(API_URL + "/{id}/reserve", product.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"quantity\":2}")
+                ).andExpect(MockMvcResultMatchers.status().isOk());
+        // then or assertions
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL + "/{id}", product.getId())
+                                .header("If-None-Match", etag)
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "W/\"" + product.getId() + "-4-8\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stock").value(8));
+    }
+
+    @Test
+    void shouldLoadVersionForETagWhenFieldsAreGiven() throws Exception {
+        // mock
+        Product product = Product.builder().id(UUID.randomUUID().toString()).name(faker.commerce().productName()).version(2L).stock(3).build();
+        // given
+        BDDMockito.given(productService.findById(product.getId(), Set.of("name", "version", "stock"))).willReturn(product);
+        // assertion
+        mockMvc.perform(
+                        MockMvcRequestBuilders.get(API_URL + "/{id}", product.getId())
+                                .param("fields", "name")
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "W/\"" + product.getId() + "-2-3\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value(product.getName()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.version").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stock").doesNotExist());
+    }
+
     @Test
     void shouldThrowAnExceptionWhenInvalidProductId() throws Exception {
         // given
-        BDDMockito.given(productService.findById(ArgumentMatchers.anyString())).willReturn(null);
+        BDDMockito.given(productService.findById(ArgumentMatchers.anyString(), ArgumentMatchers.isNull())).willReturn(null);
         // assertion
         MvcResult mvcResult = mockMvc.perform(
                         MockMvcRequestBuilders.get(API_URL + "/{id}", "123456")
@@ -136,6 +393,121 @@ class ProductControllerTest extends GlobalSpringContext {
                 .andExpect(ResponseBodyMatchers.responseBody().containsError("stock", "must be greater than or equal to 1"));
     }
 
+    @Test
+    void shouldReturnResultPerItemWhenSavingBatch() throws Exception {
+        // mock
+        List<ProductRequest> productRequests = List.of(populateProductRequest(), new ProductRequest());
+        List<BatchItemResult> expectedResults = List.of(
+                new BatchItemResult(0, BatchItemResult.CREATED, UUID.randomUUID().toString(), null),
+                new BatchItemResult(1, BatchItemResult.INVALID_REQUEST, null, Map.of("name", "must not be blank"))
+        );
+        // given
+        BDDMockito.given(productService.saveAll(ArgumentMatchers.anyList())).willReturn(expectedResults);
+        // assert
+        MvcResult mvcResult = mockMvc.perform(
+                        MockMvcRequestBuilders.post(API_URL + "/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(productRequests))
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn();
+        Assertions.assertThat(mvcResult.getResponse().getContentAsString()).isEqualToIgnoringWhitespace(
+                objectMapper.writeValueAsString(expectedResults)
+        );
+    }
+
+    @Test
+    void shouldReturnUpdatedProductWhenUpdating() throws Exception {
+        // mock
+        ProductUpdateRequest productUpdateRequest = ProductUpdateRequest.builder().price(BigDecimal.TEN).version(1L).build();
+        Product expectedProduct = populateRandomProduct();
+        expectedProduct.setVersion(2L);
+        // given
+        BDDMockito.given(productService.update("123456", productUpdateRequest)).willReturn(expectedProduct);
+        // assert
+        mockMvc.perform(
+                        MockMvcRequestBuilders.put(API_URL + "/{id}", "123456")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(productUpdateRequest))
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(ResponseBodyMatchers.responseBody().containsObjectAsJson(expectedProduct, Product.class));
+    }
+
+    @Test
+    void shouldReturnConflictWhenUpdatingStaleVersion() throws Exception {
+        // given
+        BDDMockito.given(productService.update(ArgumentMatchers.eq("123456"), ArgumentMatchers.any(ProductUpdateRequest.class)))
+                .willThrow(new ConflictException("Product 123456 was modified concurrently, expected version 1"));
+        // assert
+        mockMvc.perform(
+                        MockMvcRequestBuilders.put(API_URL + "/{id}", "123456")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(ProductUpdateRequest.builder().name("name").version(1L).build()))
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.statusCode").value("CONFLICT"));
+    }
+
+    @Test
+    void shouldRejectUpdateWithInvalidFields() throws Exception {
+        // assert
+        mockMvc.perform(
+                        MockMvcRequestBuilders.put(API_URL + "/{id}", "123456")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(ProductUpdateRequest.builder().name("").stock(10).build()))
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(ResponseBodyMatchers.responseBody().containsError("name", "must not be empty"))
+                .andExpect(ResponseBodyMatchers.responseBody().containsError("stock", "changes only through the reserve and release endpoints"));
+    }
+
+    @Test
+    void shouldReturnNewStockLevelWhenReservingStock() throws Exception {
+        // given
+        BDDMockito.given(productService.reserveStock("123456", 2)).willReturn(new StockLevel("123456", 8));
+        // assert
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post(API_URL + "/{id}/reserve", "123456")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new StockRequest(2)))
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.productId").value("123456"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stock").value(8));
+    }
+
+    @Test
+    void shouldReturnConflictWhenStockIsInsufficient() throws Exception {
+        // given
+        BDDMockito.given(productService.reserveStock("123456", 2)).willThrow(new ConflictException("Insufficient stock to reserve 2 of product: 123456"));
+        // assert
+        MvcResult mvcResult = mockMvc.perform(
+                        MockMvcRequestBuilders.post(API_URL + "/{id}/reserve", "123456")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new StockRequest(2)))
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andReturn();
+        ApiError actualApiError = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), ApiError.class);
+        ApiErrorAssert.assertThat(actualApiError)
+                .hasStatusCode("CONFLICT")
+                .hasMessage("Insufficient stock to reserve 2 of product: 123456")
+                .hasPath("uri=" + API_URL + "/123456/reserve");
+    }
+
+    @Test
+    void shouldRejectReleaseOfNonPositiveQuantity() throws Exception {
+        // assert
+        mockMvc.perform(
+                        MockMvcRequestBuilders.post(API_URL + "/{id}/release", "123456")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new StockRequest(0)))
+                ).andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(ResponseBodyMatchers.responseBody().containsError("quantity", "must be greater than or equal to 1"));
+        BDDMockito.then(productService).should(Mockito.never()).releaseStock(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt());
+    }
 
     private List<Product> populateRandomProducts() {
         return Arrays.asList(
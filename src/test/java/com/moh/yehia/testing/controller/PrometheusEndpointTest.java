@@ -0,0 +1,40 @@
+package com.moh.yehia.testing.controller;
+
+import com.moh.yehia.testing.service.design.CategoryService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.List;
+
+@AutoConfigureObservability
+class PrometheusEndpointTest extends GlobalSpringContext {
+
+    @MockBean
+    private CategoryService categoryService;
+
+    @Test
+    void shouldPublishApiLatencyHistogramsAndJvmMetrics() throws Exception {
+        // given
+        BDDMockito.given(categoryService.findAll()).willReturn(List.of());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/categories"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        // when
+        String scrape = mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        // then or assertions
+        Assertions.assertThat(scrape)
+                .containsPattern("http_server_requests_seconds_bucket\\{.*uri=\"/api/v1/categories\"")
+                .containsPattern("http_server_requests_seconds\\{.*uri=\"/api/v1/categories\",quantile=\"0.99\"")
+                .containsPattern("app_method_duration_seconds_count\\{.*class=\"CategoryController\".*layer=\"controller\"")
+                .contains("jvm_gc_memory_allocated_bytes_total")
+                .doesNotContainPattern("http_server_requests_seconds_bucket\\{.*uri=\"/actuator");
+    }
+}
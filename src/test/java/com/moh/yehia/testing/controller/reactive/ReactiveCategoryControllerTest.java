@@ -0,0 +1,76 @@
+package com.moh.yehia.testing.controller.reactive;
+
+import com.moh.yehia.testing.advice.ReactiveExceptionHandler;
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.service.design.ReactiveCategoryService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@WebFluxTest(controllers = ReactiveCategoryController.class)
+@Import(ReactiveExceptionHandler.class)
+class ReactiveCategoryControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveCategoryService categoryService;
+
+    private final String API_URL = "/api/v1/categories";
+
+    @Test
+    void shouldReturnAllCategories() {
+        // mock
+        Category category = Category.builder().id(UUID.randomUUID().toString()).name("random name").description("random category description").build();
+        // given
+        BDDMockito.given(categoryService.findAll()).willReturn(Flux.just(category));
+        // when & assertions
+        webTestClient.get().uri(API_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Category.class)
+                .contains(category);
+    }
+
+    @Test
+    void shouldThrowAnExceptionWhenInvalidId() {
+        // given
+        BDDMockito.given(categoryService.findById(ArgumentMatchers.anyString())).willReturn(Mono.empty());
+        // when & assertions
+        webTestClient.get().uri(API_URL + "/{id}", "123456")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo("INVALID_REQUEST")
+                .jsonPath("$.message").isEqualTo("Category not found with this id: 123456")
+                .jsonPath("$.path").isEqualTo("uri=" + API_URL + "/123456");
+    }
+
+    @Test
+    void shouldSaveCategoryWhenValidData() {
+        // mock
+        CategoryRequest categoryRequest = new CategoryRequest("name", "some random description");
+        Category category = Category.builder().id(UUID.randomUUID().toString()).name(categoryRequest.getName()).description(categoryRequest.getDescription()).build();
+        // given
+        BDDMockito.given(categoryService.save(ArgumentMatchers.any(CategoryRequest.class))).willReturn(Mono.just(category));
+        // when & assertions
+        webTestClient.post().uri(API_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(categoryRequest)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Category.class)
+                .isEqualTo(category);
+    }
+}
@@ -0,0 +1,229 @@
+package com.moh.yehia.testing.controller.reactive;
+
+import com.github.javafaker.Faker;
+import com.moh.yehia.testing.advice.ReactiveExceptionHandler;
+import com.moh.yehia.testing.asserts.ApiErrorAssert;
+import com.moh.yehia.testing.exception.ConflictException;
+import com.moh.yehia.testing.model.ApiError;
+import com.moh.yehia.testing.model.CursorPage;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import com.moh.yehia.testing.model.ValidationError;
+import com.moh.yehia.testing.service.design.ReactiveProductService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+@WebFluxTest(controllers = ReactiveProductController.class)
+@Import(ReactiveExceptionHandler.class)
+class ReactiveProductControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveProductService productService;
+
+    private final String API_URL = "/api/v1/products";
+
+    private static Faker faker;
+
+    @BeforeAll
+    static void initializeFaker() {
+        faker = new Faker(Locale.ENGLISH);
+    }
+
+    @Test
+    void shouldReturnAllProducts() {
+        // mock
+        List<Product> expectedProducts = List.of(populateRandomProduct(), populateRandomProduct());
+        // given
+        BDDMockito.given(productService.findAll()).willReturn(Flux.fromIterable(expectedProducts));
+        // when & assertions
+        webTestClient.get().uri(API_URL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Product.class)
+                .isEqualTo(expectedProducts);
+    }
+
+    @Test
+    void shouldReturnProductsPageWhenLimitIsGiven() {
+        // mock
+        CursorPage<Product> expectedPage = new CursorPage<>(List.of(populateRandomProduct()), "bmV4dA");
+        // given
+        BDDMockito.given(productService.findPage(1, null)).willReturn(Mono.just(expectedPage));
+        // when & assertions
+        webTestClient.get().uri(API_URL + "?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.nextCursor").isEqualTo("bmV4dA")
+                .jsonPath("$.items.length()").isEqualTo(1);
+    }
+
+    @Test
+    void shouldStreamProductsAsNdjson() {
+        // mock
+        List<Product> expectedProducts = List.of(populateRandomProduct(), populateRandomProduct());
+        // given
+        BDDMockito.given(productService.findAll()).willReturn(Flux.fromIterable(expectedProducts));
+        // when & assertions
+        webTestClient.get().uri(API_URL + "/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Product.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void shouldReturnProductWhenValidId() {
+        // mock
+        Product product = populateRandomProduct();
+        // given
+        BDDMockito.given(productService.findById(product.getId())).willReturn(Mono.just(product));
+        // when & assertions
+        webTestClient.get().uri(API_URL + "/{id}", product.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Product.class)
+                .isEqualTo(product);
+    }
+
+    @Test
+    void shouldReturnSameApiErrorAsServletStackWhenInvalidProductId() {
+        // given
+        BDDMockito.given(productService.findById(ArgumentMatchers.anyString())).willReturn(Mono.empty());
+        // when
+        ApiError actualApiError = webTestClient.get().uri(API_URL + "/{id}", "123456")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ApiError.class)
+                .returnResult()
+                .getResponseBody();
+        // then or assertions
+        ApiErrorAssert.assertThat(actualApiError)
+                .hasStatusCode("INVALID_REQUEST")
+                .hasMessage("Product not found with this id: 123456")
+                .hasPath("uri=" + API_URL + "/123456");
+    }
+
+    @Test
+    void shouldSaveProductWhenValidData() {
+        // mock
+        ProductRequest productRequest = new ProductRequest(faker.commerce().productName(), faker.funnyName().name(), new BigDecimal(faker.commerce().price()), UUID.randomUUID().toString(), 5);
+        Product expectedProduct = Product.builder().id(UUID.randomUUID().toString()).name(productRequest.getName()).description(productRequest.getDescription()).price(productRequest.getPrice()).stock(productRequest.getStock()).categoryId(productRequest.getCategoryId()).build();
+        // given
+        BDDMockito.given(productService.save(ArgumentMatchers.any(ProductRequest.class))).willReturn(Mono.just(expectedProduct));
+        // when & assertions
+        webTestClient.post().uri(API_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(productRequest)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .isEqualTo(expectedProduct);
+    }
+
+    @Test
+    void shouldReturnValidationErrorsWhenInvalidProductRequest() {
+        // mock
+        ProductRequest productRequest = new ProductRequest("", "", null, "", 0);
+        // when
+        ValidationError validationError = webTestClient.post().uri(API_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(productRequest)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ValidationError.class)
+                .returnResult()
+                .getResponseBody();
+        // then or assertions
+        Assertions.assertThat(validationError).isNotNull();
+        Assertions.assertThat(validationError.getStatusCode()).isEqualTo("INVALID_REQUEST");
+        Assertions.assertThat(validationError.getErrors())
+                .containsEntry("name", "must not be blank")
+                .containsEntry("description", "must not be blank")
+                .containsEntry("price", "must not be null")
+                .containsEntry("categoryId", "must not be blank")
+                .containsEntry("stock", "must be greater than or equal to 1");
+        BDDMockito.then(productService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void shouldUpdateProductWhenValidData() {
+        // mock
+        Product expectedProduct = populateRandomProduct();
+        ProductUpdateRequest productUpdateRequest = ProductUpdateRequest.builder().name(expectedProduct.getName()).version(2L).build();
+        // given
+        BDDMockito.given(productService.update(expectedProduct.getId(), productUpdateRequest)).willReturn(Mono.just(expectedProduct));
+        // when & assertions
+        webTestClient.put().uri(API_URL + "/{id}", expectedProduct.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(productUpdateRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Product.class)
+                .isEqualTo(expectedProduct);
+    }
+
+    @Test
+    void shouldReturnConflictWhenProductWasModifiedConcurrently() {
+        // given
+        BDDMockito.given(productService.update(ArgumentMatchers.eq("123456"), ArgumentMatchers.any(ProductUpdateRequest.class)))
+                .willReturn(Mono.error(new ConflictException("Product 123456 was modified concurrently, expected version 2")));
+        // when & assertions
+        webTestClient.put().uri(API_URL + "/{id}", "123456")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ProductUpdateRequest.builder().name("name").version(2L).build())
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo("CONFLICT");
+    }
+
+    @Test
+    void shouldRejectStockInProductUpdate() {
+        // when
+        ValidationError validationError = webTestClient.put().uri(API_URL + "/{id}", "123456")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ProductUpdateRequest.builder().stock(5).version(2L).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ValidationError.class)
+                .returnResult()
+                .getResponseBody();
+        // then or assertions
+        Assertions.assertThat(validationError).isNotNull();
+        Assertions.assertThat(validationError.getErrors()).containsEntry("stock", "changes only through the reserve and release endpoints");
+        BDDMockito.then(productService).shouldHaveNoInteractions();
+    }
+
+    private Product populateRandomProduct() {
+        return Product.builder()
+                .id(UUID.randomUUID().toString())
+                .name(faker.commerce().productName())
+                .description(faker.funnyName().name())
+                .price(new BigDecimal(faker.commerce().price()))
+                .stock(faker.number().numberBetween(1, 100))
+                .categoryId(UUID.randomUUID().toString())
+                .build();
+    }
+}
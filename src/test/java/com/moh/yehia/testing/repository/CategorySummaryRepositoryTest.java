@@ -0,0 +1,85 @@
+package com.moh.yehia.testing.repository;
+
+import com.mongodb.client.model.Filters;
+import com.moh.yehia.testing.model.CategorySummary;
+import com.moh.yehia.testing.model.Product;
+import org.assertj.core.api.Assertions;
+import org.bson.BsonType;
+import org.bson.types.ObjectId;
+import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+@DataMongoTest
+class CategorySummaryRepositoryTest extends BaseMongoContainer {
+    @Autowired
+    private CategorySummaryRepository categorySummaryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void clearUp() {
+        productRepository.deleteAll();
+        categorySummaryRepository.deleteAll();
+    }
+
+    @Test
+    void shouldRebuildTheSameSummaryTheIncrementsMaintain() {
+        productRepository.saveAll(Arrays.asList(
+                Product.builder().name("Espresso machine").price(new BigDecimal("249.90")).stock(3).categoryId("kitchen").build(),
+                Product.builder().name("Kettle").price(new BigDecimal("0.10")).stock(7).categoryId("kitchen").build(),
+                Product.builder().name("Gift card").stock(5).categoryId("kitchen").build(),
+                Product.builder().name("Desk").price(new BigDecimal("120")).stock(1).categoryId("office").build(),
+                Product.builder().name("Orphan").price(BigDecimal.TEN).stock(1).build()
+        ));
+        categorySummaryRepository.increment("kitchen", 3, 15, new BigDecimal("749.70"));
+        categorySummaryRepository.increment("kitchen", 0, 0, new BigDecimal("0.70"));
+        categorySummaryRepository.increment("office", 1, 1, new BigDecimal("120"));
+
+        List<CategorySummary> incremented = categorySummaryRepository.findAllByOrderByCategoryIdAsc();
+        categorySummaryRepository.rebuild();
+
+        Assertions.assertThat(categorySummaryRepository.findAllByOrderByCategoryIdAsc())
+                .usingRecursiveFieldByFieldElementComparator(RecursiveComparisonConfiguration.builder()
+                        .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                        .build())
+                .containsExactlyElementsOf(incremented)
+                .containsExactly(
+                        new CategorySummary("kitchen", 3, 15, new BigDecimal("750.40")),
+                        new CategorySummary("office", 1, 1, new BigDecimal("120"))
+                );
+    }
+
+    @Test
+    void shouldKeepOneSummaryPerObjectIdCategoryAcrossRebuilds() {
+        String kitchen = ObjectId.get().toHexString();
+        String office = ObjectId.get().toHexString();
+        productRepository.saveAll(Arrays.asList(
+                Product.builder().name("Kettle").price(new BigDecimal("10")).stock(2).categoryId(kitchen).build(),
+                Product.builder().name("Desk").price(new BigDecimal("120")).stock(1).categoryId(office).build()
+        ));
+        categorySummaryRepository.increment(kitchen, 1, 2, new BigDecimal("20"));
+        categorySummaryRepository.increment(office, 1, 1, new BigDecimal("120"));
+
+        categorySummaryRepository.rebuild();
+        categorySummaryRepository.increment(kitchen, 1, 4, new BigDecimal("8"));
+
+        Assertions.assertThat(mongoTemplate.getCollection(CategorySummary.COLLECTION).countDocuments()).isEqualTo(2);
+        Assertions.assertThat(mongoTemplate.getCollection(CategorySummary.COLLECTION).countDocuments(Filters.type("_id", BsonType.OBJECT_ID))).isZero();
+        Assertions.assertThat(categorySummaryRepository.findById(kitchen)).get()
+                .usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(new CategorySummary(kitchen, 2, 6, new BigDecimal("28")));
+    }
+}
@@ -0,0 +1,53 @@
+package com.moh.yehia.testing.repository;
+
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductSuggestion;
+import com.moh.yehia.testing.service.design.ProductNameIndex;
+import org.assertj.core.api.Assertions;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+@SpringBootTest(properties = {
+        "app.cache-sync.enabled=true",
+        "app.cache-sync.consumer-id=change-stream-test",
+        "app.cache-sync.token-save-interval=0s"
+})
+class ChangeStreamCacheSyncTest extends BaseMongoContainer {
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ResumeTokenRepository resumeTokenRepository;
+
+    @Autowired
+    private ProductNameIndex productNameIndex;
+
+    @Test
+    void shouldIndexProductsWrittenByAnotherInstanceAndStoreTheResumeToken() throws InterruptedException {
+        // given, written straight to the repository the way another instance would
+        String productId = ObjectId.get().toHexString();
+        productRepository.save(Product.builder().id(productId).name("Cast iron teapot").price(BigDecimal.TEN).stock(2).build());
+        // when
+        List<ProductSuggestion> suggestions = await(() -> productNameIndex.suggest("cast iron", 10));
+        // then or assertions
+        Assertions.assertThat(suggestions).extracting(ProductSuggestion::getProductId).containsExactly(productId);
+        Assertions.assertThat(resumeTokenRepository.findById("change-stream-test")).isPresent();
+    }
+
+    private static <T> List<T> await(Supplier<List<T>> supplier) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            List<T> result = supplier.get();
+            if (!result.isEmpty()) {
+                return result;
+            }
+            Thread.sleep(100);
+        }
+        return supplier.get();
+    }
+}
@@ -3,23 +3,40 @@ package com.moh.yehia.testing.repository;
 import com.github.javafaker.Faker;
 import com.moh.yehia.testing.model.Product;
 import org.assertj.core.api.Assertions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 @DataMongoTest
 class ProductRepositoryTest extends BaseMongoContainer {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     private static Faker faker;
 
     @BeforeAll
@@ -78,6 +95,166 @@ class ProductRepositoryTest extends BaseMongoContainer {
                 .isEmpty();
     }
 
+    @Test
+    void shouldReturnProductsAfterGivenIdInIdOrder() {
+        List<Product> products = productRepository.saveAll(populateRandomProducts());
+        List<String> sortedIds = products.stream().map(Product::getId).sorted().toList();
+
+        Assertions.assertThat(productRepository.findAllByOrderByIdAsc(PageRequest.ofSize(2)))
+                .extracting(Product::getId)
+                .containsExactly(sortedIds.get(0), sortedIds.get(1));
+        Assertions.assertThat(productRepository.findByIdGreaterThanOrderByIdAsc(sortedIds.get(1), PageRequest.ofSize(2)))
+                .extracting(Product::getId)
+                .containsExactly(sortedIds.get(2));
+    }
+
+    @Test
+    void shouldStreamAllProducts() {
+        List<Product> products = populateRandomProducts();
+        productRepository.saveAll(products);
+
+        try (Stream<Product> stream = productRepository.streamAllBy()) {
+            Assertions.assertThat(stream)
+                    .hasSameSizeAs(products);
+        }
+    }
+
+    @Test
+    void shouldBulkInsertAndReportDuplicatesWithoutAbortingTheBatch() {
+        Product existing = productRepository.save(Product.builder().id(UUID.randomUUID().toString()).name(faker.commerce().productName()).build());
+        List<Product> products = Arrays.asList(
+                Product.builder().id(UUID.randomUUID().toString()).name(faker.commerce().productName()).build(),
+                Product.builder().id(existing.getId()).name(faker.commerce().productName()).build(),
+                Product.builder().id(UUID.randomUUID().toString()).name(faker.commerce().productName()).build()
+        );
+
+        Map<Integer, String> failures = productRepository.bulkInsert(products);
+
+        Assertions.assertThat(failures).containsOnlyKeys(1);
+        Assertions.assertThat(productRepository.count()).isEqualTo(3);
+        Assertions.assertThat(productRepository.findById(products.get(0).getId())).get()
+                .extracting(Product::getVersion).isEqualTo(0L);
+    }
+
+    @Test
+    void shouldReturnProductsOfCategoryAfterGivenId() {
+        String categoryId = UUID.randomUUID().toString();
+        List<Product> products = productRepository.saveAll(Arrays.asList(
+                Product.builder().id(UUID.randomUUID().toString()).name(faker.commerce().productName()).categoryId(categoryId).build(),
+                Product.builder().id(UUID.randomUUID().toString()).name(faker.commerce().productName()).categoryId(categoryId).build(),
+                Product.builder().id(UUID.randomUUID().toString()).name(faker.commerce().productName()).categoryId(UUID.randomUUID().toString()).build()
+        ));
+        List<String> sortedIds = products.subList(0, 2).stream().map(Product::getId).sorted().toList();
+
+        Assertions.assertThat(productRepository.findByCategoryIdOrderByIdAsc(categoryId, PageRequest.ofSize(10), Product.class))
+                .extracting(Product::getId)
+                .containsExactlyElementsOf(sortedIds);
+        Assertions.assertThat(productRepository.findByCategoryIdAndIdGreaterThanOrderByIdAsc(categoryId, sortedIds.get(0), PageRequest.ofSize(10), Product.class))
+                .extracting(Product::getId)
+                .containsExactly(sortedIds.get(1));
+    }
+
+    @Test
+    void shouldNeverReserveMoreThanTheAvailableStock() throws Exception {
+        Product product = productRepository.save(Product.builder().id(UUID.randomUUID().toString()).name(faker.commerce().productName()).stock(10).build());
+        int successfulReservations = 0;
+        try (ExecutorService executorService = Executors.newFixedThreadPool(8)) {
+            List<Future<Product>> futures = executorService.invokeAll(
+                    Collections.nCopies(25, () -> productRepository.reserveStock(product.getId(), 1)));
+            for (Future<Product> future : futures) {
+                if (future.get() != null) {
+                    successfulReservations++;
+                }
+            }
+        }
+
+        Assertions.assertThat(successfulReservations).isEqualTo(10);
+        Assertions.assertThat(productRepository.findById(product.getId())).get().extracting(Product::getStock).isEqualTo(0);
+        Assertions.assertThat(productRepository.releaseStock(product.getId(), 4)).extracting(Product::getStock).isEqualTo(4);
+        Assertions.assertThat(productRepository.releaseStock("123465", 4)).isNull();
+    }
+
+    @Test
+    void shouldUpdateOnlyGivenFieldsWhenVersionMatches() {
+        Product product = productRepository.save(Product.builder().id(UUID.randomUUID().toString()).name(faker.commerce().productName()).description("description").stock(5).build());
+
+        Product previousProduct = productRepository.updateFields(product.getId(), product.getVersion(), Map.of("name", "new name"));
+        Product updatedProduct = productRepository.findById(product.getId()).orElseThrow();
+
+        Assertions.assertThat(previousProduct).usingRecursiveComparison().isEqualTo(product);
+        Assertions.assertThat(updatedProduct.getName()).isEqualTo("new name");
+        Assertions.assertThat(updatedProduct.getDescription()).isEqualTo("description");
+        Assertions.assertThat(updatedProduct.getStock()).isEqualTo(5);
+        Assertions.assertThat(updatedProduct.getVersion()).isEqualTo(product.getVersion() + 1);
+        Assertions.assertThat(productRepository.updateFields(product.getId(), product.getVersion(), Map.of("name", "stale name"))).isNull();
+        Assertions.assertThat(productRepository.findById(product.getId())).get().extracting(Product::getName).isEqualTo("new name");
+    }
+
+    @Test
+    void shouldStoreObjectIdHexStringsAsBinaryObjectIds() {
+        String id = ObjectId.get().toHexString();
+        productRepository.save(Product.builder().id(id).name(faker.commerce().productName()).build());
+
+        Document document = mongoTemplate.findOne(Query.query(Criteria.where("_id").is(new ObjectId(id))), Document.class, "product");
+
+        Assertions.assertThat(document).isNotNull();
+        Assertions.assertThat(document.get("_id")).isInstanceOf(ObjectId.class);
+        Assertions.assertThat(productRepository.findById(id)).get().extracting(Product::getId).isEqualTo(id);
+    }
+
+    @Test
+    void shouldSortLegacyStringIdsBeforeObjectIds() {
+        String objectId = ObjectId.get().toHexString();
+        String legacyId = UUID.randomUUID().toString();
+        productRepository.saveAll(List.of(Product.builder().id(objectId).name("new").build(), Product.builder().id(legacyId).name("legacy").build()));
+
+        Assertions.assertThat(productRepository.findAllByOrderByIdAsc(PageRequest.ofSize(2)))
+                .extracting(Product::getId)
+                .containsExactly(legacyId, objectId);
+        Assertions.assertThat(productRepository.findByIdGreaterThanOrderByIdAsc(legacyId, PageRequest.ofSize(2))).isEmpty();
+        Assertions.assertThat(productRepository.findByIdGreaterThanOrderByIdAsc("000000000000000000000000", PageRequest.ofSize(2)))
+                .extracting(Product::getId)
+                .containsExactly(objectId);
+    }
+
+    @Test
+    void shouldReadOnlySelectedFields() {
+        String categoryId = UUID.randomUUID().toString();
+        List<Product> products = productRepository.saveAll(Arrays.asList(
+                Product.builder().name(faker.commerce().productName()).description(faker.lorem().paragraph()).price(BigDecimal.TEN).stock(3).categoryId(categoryId).build(),
+                Product.builder().name(faker.commerce().productName()).description(faker.lorem().paragraph()).price(BigDecimal.ONE).stock(4).categoryId(categoryId).build()
+        ));
+        List<String> sortedIds = products.stream().map(Product::getId).sorted().toList();
+
+        List<Product> page = productRepository.findPageWithFields(categoryId, sortedIds.get(0), PageRequest.ofSize(10), Set.of("name", "price"));
+
+        Assertions.assertThat(page).extracting(Product::getId).containsExactly(sortedIds.get(1));
+        Assertions.assertThat(page.get(0).getName()).isNotNull();
+        Assertions.assertThat(page.get(0).getPrice()).isNotNull();
+        Assertions.assertThat(page.get(0).getDescription()).isNull();
+        Assertions.assertThat(page.get(0).getCategoryId()).isNull();
+        Assertions.assertThat(productRepository.findByIdWithFields(sortedIds.get(0), Set.of("stock"))).get()
+                .extracting(Product::getName).isNull();
+    }
+
+    @Test
+    void shouldFindProductsByTextRankingNameMatchesFirst() {
+        mongoTemplate.indexOps(Product.class).ensureIndex(new TextIndexDefinition.TextIndexDefinitionBuilder()
+                .onField("name", 2F)
+                .onField("description")
+                .build());
+        productRepository.saveAll(Arrays.asList(
+                Product.builder().name("Milk frother").description("Foams milk for a coffee").build(),
+                Product.builder().name("Coffee grinder").description("Burr grinder").build(),
+                Product.builder().name("Tea kettle").description("Boils water").build()
+        ));
+
+        Assertions.assertThat(productRepository.searchText("coffee", 10))
+                .extracting(Product::getName)
+                .containsExactly("Coffee grinder", "Milk frother");
+        Assertions.assertThat(productRepository.searchText("coffee", 1)).hasSize(1);
+    }
+
     private List<Product> populateRandomProducts() {
         return Arrays.asList(
                 Product.builder().name(faker.commerce().productName()).description(faker.funnyName().name()).price(new BigDecimal(faker.commerce().price())).categoryId(UUID.randomUUID().toString()).build(),
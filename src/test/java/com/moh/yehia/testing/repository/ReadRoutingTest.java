@@ -0,0 +1,82 @@
+package com.moh.yehia.testing.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ReadPreference;
+import com.moh.yehia.testing.config.ReadRouting;
+import com.moh.yehia.testing.config.ReadRoutingInterceptor;
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductRequest;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest(properties = "app.mongo.reads.secondary-enabled=true")
+@AutoConfigureMockMvc
+class ReadRoutingTest extends BaseMongoContainer {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReadRouting readRouting;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void shouldReadOwnWritesWithTheReturnedSessionToken() throws Exception {
+        // given
+        MvcResult categoryResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/categories")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CategoryRequest("Kitchen", "Everything for the kitchen"))))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().exists(ReadRoutingInterceptor.SESSION_TOKEN_HEADER))
+                .andReturn();
+        Category category = objectMapper.readValue(categoryResult.getResponse().getContentAsByteArray(), Category.class);
+        MvcResult productResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ProductRequest("Kettle", "Stainless steel kettle", new BigDecimal("39.90"), category.getId(), 4))))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andReturn();
+        Product product = objectMapper.readValue(productResult.getResponse().getContentAsByteArray(), Product.class);
+        String categoryToken = categoryResult.getResponse().getHeader(ReadRoutingInterceptor.SESSION_TOKEN_HEADER);
+        String productToken = productResult.getResponse().getHeader(ReadRoutingInterceptor.SESSION_TOKEN_HEADER);
+        // when, perform & assert
+        Assertions.assertThat(Long.parseUnsignedLong(productToken, 16)).isGreaterThanOrEqualTo(Long.parseUnsignedLong(categoryToken, 16));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/products/" + product.getId())
+                        .header(ReadRoutingInterceptor.SESSION_TOKEN_HEADER, productToken))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Kettle"))
+                .andExpect(MockMvcResultMatchers.header().exists(ReadRoutingInterceptor.SESSION_TOKEN_HEADER));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/products/" + product.getId())
+                        .header(ReadRoutingInterceptor.SESSION_TOKEN_HEADER, "not-a-token"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.statusCode").value("INVALID_REQUEST"));
+    }
+
+    @Test
+    void shouldRouteBoundReadsToSecondariesWithinTheMaxStaleness() {
+        // when
+        readRouting.bindRead(null);
+        ReadPreference routed = mongoTemplate.getDb().getReadPreference();
+        readRouting.unbind();
+        // then or assertions
+        Assertions.assertThat(routed).isEqualTo(ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS));
+        Assertions.assertThat(mongoTemplate.getDb().getReadPreference()).isEqualTo(ReadPreference.primary());
+    }
+}
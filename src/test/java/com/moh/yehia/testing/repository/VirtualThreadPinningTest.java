@@ -0,0 +1,66 @@
+package com.moh.yehia.testing.repository;
+
+import com.github.javafaker.Faker;
+import com.moh.yehia.testing.model.Product;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DataMongoTest
+class VirtualThreadPinningTest extends BaseMongoContainer {
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final Faker faker = new Faker(Locale.ENGLISH);
+
+    @Test
+    void shouldNotPinCarrierThreadsWhileCallingMongoFromVirtualThreads() throws Exception {
+        List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+        AtomicInteger virtualThreadStarts = new AtomicInteger();
+        try (RecordingStream recordingStream = new RecordingStream()) {
+            recordingStream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recordingStream.onEvent("jdk.VirtualThreadPinned", pinnedEvents::add);
+            // control event, proves the stream saw the workload so an empty pinned list means something
+            recordingStream.enable("jdk.VirtualThreadStart");
+            recordingStream.onEvent("jdk.VirtualThreadStart", event -> virtualThreadStarts.incrementAndGet());
+            recordingStream.startAsync();
+
+            try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new CopyOnWriteArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    futures.add(executorService.submit(() -> {
+                        Product product = productRepository.save(Product.builder().id(UUID.randomUUID().toString()).name(faker.commerce().productName()).price(BigDecimal.ONE).build());
+                        productRepository.findById(product.getId());
+                        productRepository.findByIdGreaterThanOrderByIdAsc(product.getId(), PageRequest.ofSize(10));
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            // close() alone drops the events not yet flushed to the stream, stop() delivers them first
+            recordingStream.stop();
+        }
+        Assertions.assertThat(virtualThreadStarts).as("virtual thread starts recorded").hasPositiveValue();
+        Assertions.assertThat(pinnedEvents)
+                .as("virtual threads pinned while inside the Mongo driver")
+                .filteredOn(event -> event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                        .anyMatch(frame -> frame.getMethod().getType().getName().startsWith("com.mongodb")))
+                .isEmpty();
+    }
+}
@@ -0,0 +1,90 @@
+package com.moh.yehia.testing.service;
+
+import com.moh.yehia.testing.config.CacheConfig;
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.repository.CategoryRepository;
+import com.moh.yehia.testing.service.design.CategoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@SpringBootTest
+class CategoryServiceCacheTest {
+    @MockBean
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void shouldServeRepeatedFindByIdFromCache() {
+        // mock
+        Category category = Category.builder().id(UUID.randomUUID().toString()).name("name").description("description").build();
+        // given
+        BDDMockito.given(categoryRepository.findById(category.getId())).willReturn(Optional.of(category));
+        // when
+        categoryService.findById(category.getId());
+        Category cachedCategory = categoryService.findById(category.getId());
+        // then or assertions
+        Assertions.assertThat(cachedCategory).isEqualTo(category);
+        BDDMockito.then(categoryRepository).should(Mockito.times(1)).findById(category.getId());
+        Assertions.assertThat(meterRegistry.get("cache.gets").tag("cache", CacheConfig.CATEGORIES).tag("result", "hit").functionCounter().count())
+                .isPositive();
+    }
+
+    @Test
+    void shouldNotCacheMissingCategories() {
+        // given
+        BDDMockito.given(categoryRepository.findById(ArgumentMatchers.anyString())).willReturn(Optional.empty());
+        // when
+        categoryService.findById("123456");
+        categoryService.findById("123456");
+        // then or assertions
+        BDDMockito.then(categoryRepository).should(Mockito.times(2)).findById("123456");
+    }
+
+    @Test
+    void shouldRefreshCachesWhenCategoryIsSaved() {
+        // mock
+        Category existing = Category.builder().id(UUID.randomUUID().toString()).name("existing").description("description").build();
+        Category saved = Category.builder().id(UUID.randomUUID().toString()).name("saved").description("description").build();
+        // given
+        // chained rather than varargs, a generic varargs call would need an unchecked generic array
+        BDDMockito.given(categoryRepository.findAll()).willReturn(List.of(existing)).willReturn(List.of(existing, saved));
+        BDDMockito.given(categoryRepository.save(ArgumentMatchers.any(Category.class))).willReturn(saved);
+        // when
+        categoryService.findAll();
+        categoryService.save(new CategoryRequest(saved.getName(), saved.getDescription()));
+        List<Category> categories = categoryService.findAll();
+        Category cachedSaved = categoryService.findById(saved.getId());
+        // then or assertions
+        Assertions.assertThat(categories).containsExactly(existing, saved);
+        Assertions.assertThat(cachedSaved).isEqualTo(saved);
+        BDDMockito.then(categoryRepository).should(Mockito.times(2)).findAll();
+        BDDMockito.then(categoryRepository).should(Mockito.never()).findById(ArgumentMatchers.anyString());
+    }
+}
@@ -3,8 +3,12 @@ package com.moh.yehia.testing.service;
 import com.github.javafaker.Faker;
 import com.moh.yehia.testing.model.Category;
 import com.moh.yehia.testing.model.CategoryRequest;
+import com.moh.yehia.testing.model.CursorPage;
 import com.moh.yehia.testing.repository.CategoryRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import com.moh.yehia.testing.service.design.IdGenerator;
 import com.moh.yehia.testing.service.impl.CategoryServiceImpl;
+import com.moh.yehia.testing.service.impl.ObjectIdGenerator;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -13,7 +17,9 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.*;
 
@@ -24,6 +30,11 @@ class CategoryServiceTest {
 
     @Mock
     private CategoryRepository categoryRepository;
+    @Spy
+    private IdGenerator idGenerator = new ObjectIdGenerator();
+    @Mock
+    private CategoryIdRegistry categoryIdRegistry;
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -77,6 +88,20 @@ class CategoryServiceTest {
                 .hasId()
                 .hasName(categoryRequest.getName())
                 .hasDescription(categoryRequest.getDescription());
+        BDDMockito.then(categoryIdRegistry).should().register(category.getId());
+    }
+
+    @Test
+    void shouldReturnCategoriesPageWithoutNextCursorWhenLastPage() {
+        // mock
+        List<Category> categories = populateCategoriesList();
+        // given
+        BDDMockito.given(categoryRepository.findAllByOrderByIdAsc(PageRequest.ofSize(4))).willReturn(categories);
+        // when
+        CursorPage<Category> page = categoryService.findPage(3, null);
+        // then or assertions
+        Assertions.assertThat(page.getItems()).hasSameSizeAs(categories);
+        Assertions.assertThat(page.getNextCursor()).isNull();
     }
 
     private List<Category> populateCategoriesList() {
@@ -0,0 +1,80 @@
+package com.moh.yehia.testing.service;
+
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.repository.CategorySummaryRepository;
+import com.moh.yehia.testing.service.impl.CategorySummaryServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class CategorySummaryServiceTest {
+    @Mock
+    private CategorySummaryRepository categorySummaryRepository;
+
+    @InjectMocks
+    private CategorySummaryServiceImpl categorySummaryService;
+
+    @Test
+    void shouldIncrementEachCategoryOnceForAddedProducts() {
+        // mock
+        List<Product> products = List.of(
+                Product.builder().price(new BigDecimal("2.50")).stock(4).categoryId("kitchen").build(),
+                Product.builder().price(new BigDecimal("1.25")).stock(2).categoryId("kitchen").build(),
+                Product.builder().stock(9).categoryId("office").build(),
+                Product.builder().price(BigDecimal.TEN).stock(1).build()
+        );
+        // when
+        categorySummaryService.productsAdded(products);
+        // then or assertions
+        BDDMockito.then(categorySummaryRepository).should().increment("kitchen", 2, 6, new BigDecimal("12.50"));
+        BDDMockito.then(categorySummaryRepository).should().increment("office", 1, 9, BigDecimal.ZERO);
+        BDDMockito.then(categorySummaryRepository).shouldHaveNoMoreInteractions();
+    }
+
+    @Test
+    void shouldApplyTheDifferenceWhenProductChangesWithinItsCategory() {
+        // mock
+        Product before = Product.builder().price(new BigDecimal("2.50")).stock(4).categoryId("kitchen").build();
+        Product after = Product.builder().price(new BigDecimal("3.00")).stock(1).categoryId("kitchen").build();
+        // when
+        categorySummaryService.productChanged(before, after);
+        // then or assertions
+        BDDMockito.then(categorySummaryRepository).should().increment("kitchen", 0, -3, new BigDecimal("-7.00"));
+    }
+
+    @Test
+    void shouldMoveProductBetweenCategories() {
+        // mock
+        Product before = Product.builder().price(new BigDecimal("2.50")).stock(4).categoryId("kitchen").build();
+        Product after = Product.builder().price(new BigDecimal("2.50")).stock(4).categoryId("office").build();
+        // when
+        categorySummaryService.productChanged(before, after);
+        // then or assertions
+        BDDMockito.then(categorySummaryRepository).should().increment("kitchen", -1, -4, new BigDecimal("-10.00"));
+        BDDMockito.then(categorySummaryRepository).should().increment("office", 1, 4, new BigDecimal("10.00"));
+    }
+
+    @Test
+    void shouldSkipUnchangedInventoryAndSurviveFailedIncrements() {
+        // mock
+        Product product = Product.builder().name("before").price(BigDecimal.ONE).stock(4).categoryId("kitchen").build();
+        // given
+        BDDMockito.willThrow(new IllegalStateException("mongo is down")).given(categorySummaryRepository)
+                .increment(ArgumentMatchers.eq("kitchen"), ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.any());
+        // when
+        categorySummaryService.productChanged(product, Product.builder().name("after").price(BigDecimal.ONE).stock(4).categoryId("kitchen").build());
+        categorySummaryService.stockMoved(product, -2);
+        // then or assertions
+        BDDMockito.then(categorySummaryRepository).should(Mockito.times(1))
+                .increment("kitchen", 0, -2, new BigDecimal("-2"));
+    }
+}
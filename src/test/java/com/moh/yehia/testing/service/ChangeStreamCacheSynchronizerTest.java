@@ -0,0 +1,95 @@
+package com.moh.yehia.testing.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.moh.yehia.testing.config.CacheConfig;
+import com.moh.yehia.testing.config.CacheSyncProperties;
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductSuggestion;
+import com.moh.yehia.testing.repository.ResumeTokenRepository;
+import com.moh.yehia.testing.service.impl.ChangeStreamCacheSynchronizer;
+import com.moh.yehia.testing.service.impl.InMemoryCategoryIdRegistry;
+import com.moh.yehia.testing.service.impl.InMemoryProductNameIndex;
+import org.assertj.core.api.Assertions;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeStreamCacheSynchronizerTest {
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ResumeTokenRepository resumeTokenRepository;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.CATEGORIES, CacheConfig.CATEGORY_LIST);
+    // loading is not exercised here, only the changes applied from the stream
+    private final InMemoryCategoryIdRegistry categoryIdRegistry = new InMemoryCategoryIdRegistry(null, Runnable::run);
+    private final InMemoryProductNameIndex productNameIndex = new InMemoryProductNameIndex(null, Runnable::run);
+
+    private ChangeStreamCacheSynchronizer changeStreamCacheSynchronizer;
+
+    @BeforeEach
+    void setUp() {
+        BDDMockito.given(mongoTemplate.getCollectionName(Product.class)).willReturn("product");
+        BDDMockito.given(mongoTemplate.getCollectionName(Category.class)).willReturn("category");
+        changeStreamCacheSynchronizer = new ChangeStreamCacheSynchronizer(mongoTemplate, resumeTokenRepository, cacheManager,
+                categoryIdRegistry, productNameIndex, new CacheSyncProperties());
+    }
+
+    @Test
+    void shouldEvictCategoryCachesAndRegisterCategoriesCreatedElsewhere() {
+        // mock
+        ObjectId categoryId = ObjectId.get();
+        ObjectId createdCategoryId = ObjectId.get();
+        cacheManager.getCache(CacheConfig.CATEGORIES).put(categoryId.toHexString(), Category.builder().id(categoryId.toHexString()).name("Kitchen").build());
+        cacheManager.getCache(CacheConfig.CATEGORY_LIST).put(SimpleKey.EMPTY, List.of());
+        // when
+        changeStreamCacheSynchronizer.apply(event("update", "category", categoryId, null, null));
+        changeStreamCacheSynchronizer.apply(event("insert", "category", createdCategoryId, null, null));
+        // then or assertions
+        Assertions.assertThat(cacheManager.getCache(CacheConfig.CATEGORIES).get(categoryId.toHexString())).isNull();
+        Assertions.assertThat(cacheManager.getCache(CacheConfig.CATEGORY_LIST).get(SimpleKey.EMPTY)).isNull();
+        Assertions.assertThat(categoryIdRegistry.exists(createdCategoryId.toHexString())).isTrue();
+    }
+
+    @Test
+    void shouldKeepProductNameIndexInStepWithChangesOfOtherInstances() {
+        // mock
+        ObjectId kettle = ObjectId.get();
+        ObjectId grinder = ObjectId.get();
+        // when
+        changeStreamCacheSynchronizer.apply(event("insert", "product", kettle, new Document("name", "Kettle"), null));
+        changeStreamCacheSynchronizer.apply(event("insert", "product", grinder, new Document("name", "Grinder"), null));
+        changeStreamCacheSynchronizer.apply(event("update", "product", kettle, null, new BsonDocument("name", new BsonString("Kettle pro"))));
+        changeStreamCacheSynchronizer.apply(event("delete", "product", grinder, null, null));
+        // then or assertions
+        Assertions.assertThat(productNameIndex.suggest("k", 10))
+                .extracting(ProductSuggestion::getName)
+                .containsExactly("Kettle pro");
+        Assertions.assertThat(productNameIndex.suggest("g", 10)).isEmpty();
+    }
+
+    private static ChangeStreamDocument<Document> event(String operationType, String collection, ObjectId id,
+                                                        Document fullDocument, BsonDocument updatedFields) {
+        return new ChangeStreamDocument<>(operationType, new BsonDocument("_data", new BsonString("8263")),
+                new BsonDocument("db", new BsonString("product-service")).append("coll", new BsonString(collection)), null,
+                fullDocument, null, new BsonDocument("_id", new BsonObjectId(id)), null,
+                updatedFields == null ? null : new UpdateDescription(List.of(), updatedFields), null, null, null, null, null);
+    }
+}
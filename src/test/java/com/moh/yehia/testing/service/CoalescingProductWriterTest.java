@@ -0,0 +1,175 @@
+package com.moh.yehia.testing.service;
+
+import com.moh.yehia.testing.config.ProductProperties;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.repository.ProductRepository;
+import com.moh.yehia.testing.service.impl.CoalescingProductWriter;
+import org.assertj.core.api.Assertions;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingProductWriterTest {
+    private static final int BATCH_SIZE = 4;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private CoalescingProductWriter productWriter;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        productWriter.close();
+    }
+
+    @Test
+    void shouldSaveDirectlyWhenCoalescingIsDisabled() {
+        // mock
+        Product product = product("Kettle");
+        productWriter = new CoalescingProductWriter(productRepository, new ProductProperties());
+        // given
+        BDDMockito.given(productRepository.save(product)).willReturn(product);
+        // when
+        Product inserted = productWriter.insert(product);
+        // then or assertions
+        Assertions.assertThat(inserted).isSameAs(product);
+        BDDMockito.then(productRepository).should(Mockito.never()).bulkInsert(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    void shouldWriteConcurrentInsertsWithOneBulkInsert() {
+        // mock
+        productWriter = new CoalescingProductWriter(productRepository, coalescing());
+        List<Product> products = IntStream.range(0, BATCH_SIZE).mapToObj(i -> product("Product " + i)).toList();
+        // given
+        BDDMockito.given(productRepository.bulkInsert(ArgumentMatchers.anyList())).willReturn(Map.of());
+        // when
+        List<Product> inserted = insertConcurrently(products).stream().map(CompletableFuture::join).toList();
+        // then or assertions
+        Assertions.assertThat(inserted).containsExactlyElementsOf(products);
+        BDDMockito.then(productRepository).should().bulkInsert(ArgumentMatchers.argThat(batch -> batch.size() == BATCH_SIZE));
+        BDDMockito.then(productRepository).should(Mockito.never()).save(ArgumentMatchers.any(Product.class));
+    }
+
+    @Test
+    void shouldFailOnlyTheCallerWhoseDocumentWasRejected() {
+        // mock
+        productWriter = new CoalescingProductWriter(productRepository, coalescing());
+        List<Product> products = IntStream.range(0, BATCH_SIZE).mapToObj(i -> product(i == 2 ? "duplicate" : "Product " + i)).toList();
+        // given
+        BDDMockito.given(productRepository.bulkInsert(ArgumentMatchers.anyList())).willAnswer(invocation -> {
+            List<Product> batch = invocation.getArgument(0);
+            int position = IntStream.range(0, batch.size()).filter(i -> "duplicate".equals(batch.get(i).getName())).findFirst().orElseThrow();
+            return Map.of(position, "E11000 duplicate key error collection: product-service.products index: _id_");
+        });
+        // when
+        List<CompletableFuture<Product>> results = insertConcurrently(products);
+        // then or assertions
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            if (i == 2) {
+                Assertions.assertThatThrownBy(results.get(i)::join)
+                        .isInstanceOf(CompletionException.class)
+                        .hasCauseInstanceOf(DuplicateKeyException.class);
+            } else {
+                Assertions.assertThat(results.get(i).join()).isSameAs(products.get(i));
+            }
+        }
+    }
+
+    @Test
+    void shouldFailEveryCallerWhenTheBulkInsertFails() {
+        // mock
+        productWriter = new CoalescingProductWriter(productRepository, coalescing());
+        List<Product> products = IntStream.range(0, BATCH_SIZE).mapToObj(i -> product("Product " + i)).toList();
+        // given
+        BDDMockito.given(productRepository.bulkInsert(ArgumentMatchers.anyList()))
+                .willThrow(new DataAccessResourceFailureException("mongo is down"));
+        // when
+        List<CompletableFuture<Product>> results = insertConcurrently(products);
+        // then or assertions
+        Assertions.assertThat(results).allSatisfy(result -> Assertions.assertThatThrownBy(result::join)
+                .hasCauseInstanceOf(DataAccessResourceFailureException.class)
+                .hasRootCauseMessage("mongo is down"));
+    }
+
+    @Test
+    void shouldWriteQueuedInsertsOnClose() throws InterruptedException {
+        // mock
+        productWriter = new CoalescingProductWriter(productRepository, coalescing());
+        List<Product> products = IntStream.range(0, BATCH_SIZE - 1).mapToObj(i -> product("Product " + i)).toList();
+        List<Product> inserted = new CopyOnWriteArrayList<>();
+        // given
+        BDDMockito.given(productRepository.bulkInsert(ArgumentMatchers.anyList())).willReturn(Map.of());
+        // when, the batch is not full and the window is a minute away, only close() gets these inserts written
+        List<Thread> callers = products.stream()
+                .map(product -> Thread.ofPlatform().start(() -> inserted.add(productWriter.insert(product))))
+                .toList();
+        while (callers.stream().anyMatch(caller -> caller.getState() != Thread.State.WAITING && caller.isAlive())) {
+            Thread.sleep(10);
+        }
+        productWriter.close();
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        // then or assertions
+        Assertions.assertThat(inserted).containsExactlyInAnyOrderElementsOf(products);
+        BDDMockito.then(productRepository).should().bulkInsert(ArgumentMatchers.argThat(batch -> batch.size() == BATCH_SIZE - 1));
+        BDDMockito.then(productRepository).should(Mockito.never()).save(ArgumentMatchers.any(Product.class));
+    }
+
+    @Test
+    void shouldFailWaitingCallersAndSaveDirectlyOnceTheFlusherDies() {
+        // mock
+        productWriter = new CoalescingProductWriter(productRepository, coalescing());
+        List<Product> products = IntStream.range(0, BATCH_SIZE).mapToObj(i -> product("Product " + i)).toList();
+        Product later = product("Later");
+        // given
+        BDDMockito.given(productRepository.bulkInsert(ArgumentMatchers.anyList())).willThrow(new LinkageError("flusher killed"));
+        BDDMockito.given(productRepository.save(later)).willReturn(later);
+        // when
+        List<CompletableFuture<Product>> results = insertConcurrently(products);
+        // then or assertions
+        Assertions.assertThat(results).allSatisfy(result -> Assertions.assertThatThrownBy(result::join)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("flusher killed"));
+        Assertions.assertThat(productWriter.insert(later)).isSameAs(later);
+    }
+
+    // the window is far longer than the test, the batch is flushed because it is full
+    private static ProductProperties coalescing() {
+        ProductProperties productProperties = new ProductProperties();
+        productProperties.getCoalesce().setEnabled(true);
+        productProperties.getCoalesce().setWindow(Duration.ofMinutes(1));
+        productProperties.getCoalesce().setMaxBatchSize(BATCH_SIZE);
+        return productProperties;
+    }
+
+    private List<CompletableFuture<Product>> insertConcurrently(List<Product> products) {
+        List<CompletableFuture<Product>> results = new ArrayList<>(products.size());
+        products.forEach(product -> results.add(CompletableFuture.supplyAsync(() -> productWriter.insert(product),
+                runnable -> Thread.ofVirtual().start(runnable))));
+        return results;
+    }
+
+    private static Product product(String name) {
+        return Product.builder().id(ObjectId.get().toHexString()).name(name).build();
+    }
+}
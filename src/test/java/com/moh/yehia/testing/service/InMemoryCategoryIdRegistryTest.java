@@ -0,0 +1,67 @@
+package com.moh.yehia.testing.service;
+
+import com.moh.yehia.testing.model.Category;
+import com.moh.yehia.testing.repository.CategoryRepository;
+import com.moh.yehia.testing.service.impl.InMemoryCategoryIdRegistry;
+import org.assertj.core.api.Assertions;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryCategoryIdRegistryTest {
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private InMemoryCategoryIdRegistry categoryIdRegistry;
+
+    @BeforeEach
+    void setUp() {
+        categoryIdRegistry = new InMemoryCategoryIdRegistry(categoryRepository, Runnable::run);
+    }
+
+    @Test
+    void shouldAnswerLoadedAndRegisteredIdsFromMemory() {
+        // mock
+        String loadedId = ObjectId.get().toHexString();
+        String registeredId = ObjectId.get().toHexString();
+        // given
+        BDDMockito.given(categoryRepository.findPageWithFields(ArgumentMatchers.isNull(), ArgumentMatchers.any(), ArgumentMatchers.anySet()))
+                .willReturn(List.of(Category.builder().id(loadedId).build()));
+        // when
+        categoryIdRegistry.initialize();
+        categoryIdRegistry.register(registeredId);
+        // then or assertions
+        Assertions.assertThat(categoryIdRegistry.exists(loadedId)).isTrue();
+        Assertions.assertThat(categoryIdRegistry.exists(registeredId)).isTrue();
+        BDDMockito.then(categoryRepository).should(Mockito.never()).existsById(ArgumentMatchers.anyString());
+    }
+
+    @Test
+    void shouldFallBackToDatabaseOnlyOnMiss() {
+        // mock
+        String createdElsewhereId = ObjectId.get().toHexString();
+        // given
+        BDDMockito.given(categoryRepository.existsById(createdElsewhereId)).willReturn(true);
+        BDDMockito.given(categoryRepository.existsById("unknown")).willReturn(false);
+        // when
+        boolean firstLookup = categoryIdRegistry.exists(createdElsewhereId);
+        boolean secondLookup = categoryIdRegistry.exists(createdElsewhereId);
+        // then or assertions
+        Assertions.assertThat(firstLookup).isTrue();
+        Assertions.assertThat(secondLookup).isTrue();
+        Assertions.assertThat(categoryIdRegistry.exists("unknown")).isFalse();
+        Assertions.assertThat(categoryIdRegistry.exists("unknown")).isFalse();
+        Assertions.assertThat(categoryIdRegistry.exists(null)).isFalse();
+        BDDMockito.then(categoryRepository).should(Mockito.times(1)).existsById(createdElsewhereId);
+        BDDMockito.then(categoryRepository).should(Mockito.times(2)).existsById("unknown");
+    }
+}
@@ -0,0 +1,88 @@
+package com.moh.yehia.testing.service;
+
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductSuggestion;
+import com.moh.yehia.testing.repository.ProductRepository;
+import com.moh.yehia.testing.service.impl.InMemoryProductNameIndex;
+import org.assertj.core.api.Assertions;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryProductNameIndexTest {
+    private static final int LOAD_PAGE_SIZE = 1_000;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private InMemoryProductNameIndex productNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        productNameIndex = new InMemoryProductNameIndex(productRepository, Runnable::run);
+    }
+
+    @Test
+    void shouldLoadNamesPageByPage() {
+        // mock
+        List<Product> firstPage = IntStream.range(0, LOAD_PAGE_SIZE)
+                .mapToObj(i -> Product.builder().id(ObjectId.get().toHexString()).name("Mug " + i).build())
+                .toList();
+        Product lastProduct = Product.builder().id(ObjectId.get().toHexString()).name("Kettle").build();
+        String lastIdOfFirstPage = firstPage.get(LOAD_PAGE_SIZE - 1).getId();
+        // given
+        BDDMockito.given(productRepository.findPageWithFields(ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.any(), ArgumentMatchers.anySet()))
+                .willReturn(firstPage);
+        BDDMockito.given(productRepository.findPageWithFields(ArgumentMatchers.isNull(), ArgumentMatchers.eq(lastIdOfFirstPage), ArgumentMatchers.any(), ArgumentMatchers.anySet()))
+                .willReturn(List.of(lastProduct));
+        // when
+        productNameIndex.initialize();
+        // then or assertions
+        Assertions.assertThat(productNameIndex.suggest("kett", 10)).containsExactly(new ProductSuggestion(lastProduct.getId(), "Kettle"));
+        Assertions.assertThat(productNameIndex.suggest("mug", LOAD_PAGE_SIZE + 1)).hasSize(LOAD_PAGE_SIZE);
+        BDDMockito.then(productRepository).should(Mockito.times(2))
+                .findPageWithFields(ArgumentMatchers.isNull(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anySet());
+        BDDMockito.then(productRepository).should(Mockito.never()).findAllWithFields(ArgumentMatchers.anySet());
+    }
+
+    @Test
+    void shouldNotBringBackProductsRemovedWhileLoading() {
+        // mock
+        Product deleted = Product.builder().id(ObjectId.get().toHexString()).name("Kettle").build();
+        Product kept = Product.builder().id(ObjectId.get().toHexString()).name("Kettle lid").build();
+        // given, the delete is applied before the load reaches the page holding the product
+        BDDMockito.given(productRepository.findPageWithFields(ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.any(), ArgumentMatchers.anySet()))
+                .willAnswer(invocation -> {
+                    productNameIndex.remove(deleted.getId());
+                    return List.of(deleted, kept);
+                });
+        // when
+        productNameIndex.initialize();
+        // then or assertions
+        Assertions.assertThat(productNameIndex.suggest("kettle", 10)).containsExactly(new ProductSuggestion(kept.getId(), "Kettle lid"));
+    }
+
+    @Test
+    void shouldDropEntriesMissingFromTheDatabaseOnReload() {
+        // mock
+        Product product = Product.builder().id(ObjectId.get().toHexString()).name("Kettle").build();
+        productNameIndex.put(ObjectId.get().toHexString(), "Kettle deleted elsewhere");
+        // given
+        BDDMockito.given(productRepository.findPageWithFields(ArgumentMatchers.isNull(), ArgumentMatchers.isNull(), ArgumentMatchers.any(), ArgumentMatchers.anySet()))
+                .willReturn(List.of(product));
+        // when
+        productNameIndex.reload();
+        // then or assertions
+        Assertions.assertThat(productNameIndex.suggest("kettle", 10)).containsExactly(new ProductSuggestion(product.getId(), "Kettle"));
+    }
+}
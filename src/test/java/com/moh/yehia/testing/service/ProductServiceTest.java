@@ -1,19 +1,41 @@
 package com.moh.yehia.testing.service;
 
 import com.github.javafaker.Faker;
+import com.moh.yehia.testing.config.ProductProperties;
+import com.moh.yehia.testing.exception.ConflictException;
+import com.moh.yehia.testing.exception.InvalidRequestException;
+import com.moh.yehia.testing.model.BatchItemResult;
+import com.moh.yehia.testing.model.CursorPage;
 import com.moh.yehia.testing.model.Product;
 import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.model.ProductSuggestion;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import com.moh.yehia.testing.model.StockLevel;
 import com.moh.yehia.testing.repository.ProductRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import com.moh.yehia.testing.service.design.CategorySummaryService;
+import com.moh.yehia.testing.service.design.IdGenerator;
+import com.moh.yehia.testing.service.design.ProductNameIndex;
+import com.moh.yehia.testing.service.design.ProductWriter;
+import com.moh.yehia.testing.service.impl.InMemoryProductNameIndex;
 import com.moh.yehia.testing.service.impl.ProductServiceImpl;
+import com.moh.yehia.testing.service.impl.ObjectIdGenerator;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.bson.types.ObjectId;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.util.*;
@@ -25,6 +47,28 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private ProductProperties productProperties = new ProductProperties();
+
+    @Spy
+    private IdGenerator idGenerator = new ObjectIdGenerator();
+
+    @Mock
+    private CategoryIdRegistry categoryIdRegistry;
+
+    @Mock
+    private CategorySummaryService categorySummaryService;
+
+    @Mock
+    private ProductWriter productWriter;
+
+    // loading at startup is not exercised here, only the updates made by the service
+    @Spy
+    private ProductNameIndex productNameIndex = new InMemoryProductNameIndex(null, Runnable::run);
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -50,6 +94,19 @@ class ProductServiceTest {
                 .hasSameSizeAs(products);
     }
 
+    @Test
+    void shouldStreamProductsFromRepositoryCursor() {
+        // mock
+        List<Product> products = populateProductList();
+        // given
+        BDDMockito.given(productRepository.streamAllBy()).willReturn(products.stream());
+        // when
+        List<Product> streamedProducts = productService.streamAll().toList();
+        // then or assertions
+        Assertions.assertThat(streamedProducts).containsExactlyElementsOf(products);
+        BDDMockito.then(productRepository).should(Mockito.never()).findAll();
+    }
+
     @Test
     void shouldReturnProductWithValidId() {
         // mock
@@ -71,7 +128,8 @@ class ProductServiceTest {
         ProductRequest productRequest = populateRandomPRoductRequest();
         Product product = populateValidProduct(productRequest);
         // given
-        BDDMockito.given(productRepository.save(ArgumentMatchers.any(Product.class))).willReturn(product);
+        BDDMockito.given(categoryIdRegistry.exists(ArgumentMatchers.anyString())).willReturn(true);
+        BDDMockito.given(productWriter.insert(ArgumentMatchers.any(Product.class))).willReturn(product);
         // when
         Product savedProduct = productService.save(productRequest);
         // then or assertions
@@ -84,6 +142,318 @@ class ProductServiceTest {
                 .hasPrice(productRequest.getPrice());
     }
 
+    @Test
+    void shouldSuggestSavedAndRenamedProductsByPrefix() {
+        // mock
+        Product espresso = Product.builder().id(ObjectId.get().toHexString()).name("Espresso machine").version(1L).build();
+        Product grinder = Product.builder().id(ObjectId.get().toHexString()).name("espresso grinder").build();
+        // given
+        BDDMockito.given(categoryIdRegistry.exists(ArgumentMatchers.anyString())).willReturn(true);
+        BDDMockito.given(productWriter.insert(ArgumentMatchers.any(Product.class))).willReturn(espresso, grinder);
+        BDDMockito.given(productRepository.updateFields(grinder.getId(), null, Map.of("name", "Burr grinder")))
+                .willReturn(Product.builder().id(grinder.getId()).name("Burr grinder").build());
+        // when
+        productService.save(populateRandomPRoductRequest());
+        productService.save(populateRandomPRoductRequest());
+        List<ProductSuggestion> beforeRename = productService.suggest(" ESP", 10);
+        List<ProductSuggestion> firstOnly = productService.suggest("esp", 1);
+        productService.update(grinder.getId(), ProductUpdateRequest.builder().name("Burr grinder").build());
+        // then or assertions
+        Assertions.assertThat(beforeRename)
+                .extracting(ProductSuggestion::getName)
+                .containsExactly("espresso grinder", "Espresso machine");
+        Assertions.assertThat(productService.suggest("esp", 10))
+                .extracting(ProductSuggestion::getProductId)
+                .containsExactly(espresso.getId());
+        Assertions.assertThat(productService.suggest("burr", 10))
+                .extracting(ProductSuggestion::getName)
+                .containsExactly("Burr grinder");
+        Assertions.assertThat(firstOnly)
+                .extracting(ProductSuggestion::getName)
+                .containsExactly("espresso grinder");
+    }
+
+    @Test
+    void shouldSearchProductsThroughTextIndex() {
+        // mock
+        List<Product> products = populateProductList();
+        // given
+        BDDMockito.given(productRepository.searchText("coffee", 20)).willReturn(products);
+        // when
+        List<Product> foundProducts = productService.search("coffee", 20);
+        // then or assertions
+        Assertions.assertThat(foundProducts).isSameAs(products);
+        Assertions.assertThatThrownBy(() -> productService.search(" ", 20))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("q must not be blank");
+        Assertions.assertThatThrownBy(() -> productService.suggest("esp", 101))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("limit must be between 1 and 100");
+    }
+
+    @Test
+    void shouldAssignTimeOrderedObjectIdWhenSaving() {
+        // mock
+        ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
+        // given
+        BDDMockito.given(categoryIdRegistry.exists(ArgumentMatchers.anyString())).willReturn(true);
+        BDDMockito.given(productWriter.insert(productCaptor.capture())).willAnswer(invocation -> invocation.getArgument(0));
+        // when
+        Product first = productService.save(populateRandomPRoductRequest());
+        Product second = productService.save(populateRandomPRoductRequest());
+        // then or assertions
+        Assertions.assertThat(ObjectId.isValid(first.getId())).isTrue();
+        Assertions.assertThat(new ObjectId(first.getId())).isLessThan(new ObjectId(second.getId()));
+    }
+
+    @Test
+    void shouldContinueIntoObjectIdRangeAfterLegacyStringCursor() {
+        // mock
+        String legacyId = UUID.randomUUID().toString();
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(legacyId.getBytes());
+        Product lastLegacyProduct = Product.builder().id(UUID.randomUUID().toString()).build();
+        List<Product> objectIdProducts = List.of(Product.builder().id(ObjectId.get().toHexString()).build(), Product.builder().id(ObjectId.get().toHexString()).build());
+        // given
+        BDDMockito.given(productRepository.findByIdGreaterThanOrderByIdAsc(legacyId, PageRequest.ofSize(3))).willReturn(List.of(lastLegacyProduct));
+        BDDMockito.given(productRepository.findByIdGreaterThanOrderByIdAsc("000000000000000000000000", PageRequest.ofSize(2))).willReturn(objectIdProducts);
+        // when
+        CursorPage<Product> page = productService.findPage(2, cursor);
+        // then or assertions
+        Assertions.assertThat(page.getItems()).containsExactly(lastLegacyProduct, objectIdProducts.get(0));
+        Assertions.assertThat(page.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    void shouldReturnFirstPageWithNextCursorWhenMoreProductsExist() {
+        // mock
+        List<Product> products = populateProductList();
+        // given
+        BDDMockito.given(productRepository.findAllByOrderByIdAsc(PageRequest.ofSize(3))).willReturn(products);
+        // when
+        CursorPage<Product> page = productService.findPage(2, null);
+        // then or assertions
+        Assertions.assertThat(page.getItems()).containsExactly(products.get(0), products.get(1));
+        Assertions.assertThat(page.getNextCursor()).isNotBlank();
+    }
+
+    @Test
+    void shouldContinueAfterCursorAndReturnLastPage() {
+        // mock
+        List<Product> products = populateProductList();
+        BDDMockito.given(productRepository.findAllByOrderByIdAsc(PageRequest.ofSize(2))).willReturn(products.subList(0, 2));
+        CursorPage<Product> firstPage = productService.findPage(1, null);
+        // given
+        BDDMockito.given(productRepository.findByIdGreaterThanOrderByIdAsc(products.get(0).getId(), PageRequest.ofSize(2))).willReturn(products.subList(1, 2));
+        // when
+        CursorPage<Product> secondPage = productService.findPage(1, firstPage.getNextCursor());
+        // then or assertions
+        Assertions.assertThat(secondPage.getItems()).containsExactly(products.get(1));
+        Assertions.assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldReturnProductsPageOfCategory() {
+        // mock
+        String categoryId = UUID.randomUUID().toString();
+        List<Product> products = populateProductList();
+        // given
+        BDDMockito.given(productRepository.findByCategoryIdOrderByIdAsc(categoryId, PageRequest.ofSize(3), Product.class)).willReturn(products);
+        // when
+        CursorPage<Product> page = productService.findPageByCategory(categoryId, 2, null);
+        // then or assertions
+        Assertions.assertThat(page.getItems()).hasSize(2);
+        Assertions.assertThat(page.getNextCursor()).isNotNull();
+        BDDMockito.then(productRepository).should(Mockito.never()).findAll();
+    }
+
+    @Test
+    void shouldProjectSelectedFieldsWhenReadingPage() {
+        // mock
+        Set<String> fields = Set.of("id", "name", "price");
+        List<Product> products = populateProductList();
+        // given
+        BDDMockito.given(productRepository.findPageWithFields(null, null, PageRequest.ofSize(3), fields)).willReturn(products);
+        // when
+        CursorPage<Product> page = productService.findPage(2, null, fields);
+        // then or assertions
+        Assertions.assertThat(page.getItems()).hasSize(2);
+        BDDMockito.then(productRepository).should(Mockito.never()).findAllByOrderByIdAsc(ArgumentMatchers.any());
+    }
+
+    @Test
+    void shouldRejectPageLimitOutOfRange() {
+        Assertions.assertThatThrownBy(() -> productService.findPage(0, null))
+                .isInstanceOf(InvalidRequestException.class);
+        Assertions.assertThatThrownBy(() -> productService.findPage(501, null))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        Assertions.assertThatThrownBy(() -> productService.findPage(10, "not a cursor!"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Invalid cursor: not a cursor!");
+    }
+
+    @Test
+    void shouldInsertValidProductsInChunksAndReportInvalidOnes() {
+        // mock
+        productProperties.getBatch().setChunkSize(2);
+        ProductRequest invalidRequest = new ProductRequest("", "description", null, "category", 1);
+        List<ProductRequest> productRequests = Arrays.asList(populateRandomPRoductRequest(), invalidRequest, populateRandomPRoductRequest(), populateRandomPRoductRequest(), null);
+        // given
+        BDDMockito.given(categoryIdRegistry.exists(ArgumentMatchers.anyString())).willReturn(true);
+        BDDMockito.given(productRepository.bulkInsert(ArgumentMatchers.anyList())).willReturn(Map.of());
+        // when
+        List<BatchItemResult> results = productService.saveAll(productRequests);
+        // then or assertions
+        Assertions.assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemResult.CREATED, BatchItemResult.INVALID_REQUEST, BatchItemResult.CREATED, BatchItemResult.CREATED, BatchItemResult.INVALID_REQUEST);
+        Assertions.assertThat(results).extracting(BatchItemResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        Assertions.assertThat(results.get(0).getId()).isNotBlank();
+        Assertions.assertThat(results.get(1).getErrors())
+                .containsEntry("name", "must not be blank")
+                .containsEntry("price", "must not be null");
+        BDDMockito.then(productRepository).should(Mockito.times(2)).bulkInsert(ArgumentMatchers.anyList());
+        BDDMockito.then(productRepository).should(Mockito.never()).save(ArgumentMatchers.any(Product.class));
+    }
+
+    @Test
+    void shouldMapBulkWriteFailuresBackToTheirItems() {
+        // mock
+        List<ProductRequest> productRequests = List.of(populateRandomPRoductRequest(), populateRandomPRoductRequest());
+        // given
+        BDDMockito.given(categoryIdRegistry.exists(ArgumentMatchers.anyString())).willReturn(true);
+        BDDMockito.given(productRepository.bulkInsert(ArgumentMatchers.anyList())).willReturn(Map.of(1, "E11000 duplicate key error"));
+        // when
+        List<BatchItemResult> results = productService.saveAll(productRequests);
+        // then or assertions
+        Assertions.assertThat(results.get(0).getStatus()).isEqualTo(BatchItemResult.CREATED);
+        Assertions.assertThat(results.get(1).getStatus()).isEqualTo(BatchItemResult.FAILED);
+        Assertions.assertThat(results.get(1).getId()).isNull();
+        Assertions.assertThat(results.get(1).getErrors()).containsEntry("product", "E11000 duplicate key error");
+        BDDMockito.then(categorySummaryService).should().productsAdded(ArgumentMatchers.argThat(products -> products.size() == 1));
+    }
+
+    @Test
+    void shouldRejectProductsOfUnknownCategory() {
+        // mock
+        ProductRequest productRequest = populateRandomPRoductRequest();
+        productRequest.setCategoryId("unknown");
+        List<ProductRequest> productRequests = List.of(productRequest, productRequest, populateRandomPRoductRequest());
+        // given
+        BDDMockito.given(categoryIdRegistry.exists("unknown")).willReturn(false);
+        BDDMockito.given(categoryIdRegistry.exists(productRequests.get(2).getCategoryId())).willReturn(true);
+        BDDMockito.given(productRepository.bulkInsert(ArgumentMatchers.anyList())).willReturn(Map.of());
+        // when
+        List<BatchItemResult> results = productService.saveAll(productRequests);
+        // then or assertions
+        Assertions.assertThatThrownBy(() -> productService.save(productRequest))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Category not found with this id: unknown");
+        Assertions.assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemResult.INVALID_REQUEST, BatchItemResult.INVALID_REQUEST, BatchItemResult.CREATED);
+        Assertions.assertThat(results.get(0).getErrors()).containsEntry("categoryId", "category not found");
+        BDDMockito.then(categoryIdRegistry).should(Mockito.times(2)).exists("unknown");
+        BDDMockito.then(productRepository).should(Mockito.never()).save(ArgumentMatchers.any(Product.class));
+    }
+
+    @Test
+    void shouldRejectBatchLargerThanMaxItems() {
+        productProperties.getBatch().setMaxItems(1);
+        List<ProductRequest> productRequests = List.of(populateRandomPRoductRequest(), populateRandomPRoductRequest());
+        Assertions.assertThatThrownBy(() -> productService.saveAll(productRequests))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Batch size must not exceed 1 products");
+    }
+
+    @Test
+    void shouldSetOnlyProvidedFieldsWhenUpdating() {
+        // mock
+        ProductUpdateRequest productUpdateRequest = ProductUpdateRequest.builder().name("new name").version(3L).build();
+        Product previous = populateRandomProduct();
+        previous.setVersion(3L);
+        // given
+        BDDMockito.given(productRepository.updateFields("123456", 3L, Map.of("name", "new name"))).willReturn(previous);
+        // when
+        Product updatedProduct = productService.update("123456", productUpdateRequest);
+        // then or assertions
+        Assertions.assertThat(updatedProduct)
+                .usingRecursiveComparison()
+                .isEqualTo(Product.builder().id(previous.getId()).name("new name").description(previous.getDescription()).price(previous.getPrice())
+                        .stock(previous.getStock()).categoryId(previous.getCategoryId()).version(4L).build());
+        BDDMockito.then(categorySummaryService).should().productChanged(previous, updatedProduct);
+        BDDMockito.then(productRepository).should(Mockito.never()).save(ArgumentMatchers.any(Product.class));
+    }
+
+    @Test
+    void shouldThrowConflictWhenProductVersionChanged() {
+        // given
+        BDDMockito.given(productRepository.updateFields(ArgumentMatchers.eq("123456"), ArgumentMatchers.eq(3L), ArgumentMatchers.anyMap())).willReturn(null);
+        BDDMockito.given(productRepository.existsById("123456")).willReturn(true);
+        // when & then
+        Assertions.assertThatThrownBy(() -> productService.update("123456", ProductUpdateRequest.builder().name("new name").version(3L).build()))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Product 123456 was modified concurrently, expected version 3");
+    }
+
+    @Test
+    void shouldRejectUpdateWithoutFields() {
+        Assertions.assertThatThrownBy(() -> productService.update("123456", ProductUpdateRequest.builder().version(3L).build()))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("At least one product field must be provided to update");
+        BDDMockito.then(productRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void shouldReturnNewStockWhenReservationSucceeds() {
+        // mock
+        Product product = Product.builder().id(UUID.randomUUID().toString()).stock(7).build();
+        // given
+        BDDMockito.given(productRepository.reserveStock(product.getId(), 3)).willReturn(product);
+        // when
+        StockLevel stockLevel = productService.reserveStock(product.getId(), 3);
+        // then or assertions
+        Assertions.assertThat(stockLevel).isEqualTo(new StockLevel(product.getId(), 7));
+        BDDMockito.then(categorySummaryService).should().stockMoved(product, -3);
+        BDDMockito.then(productRepository).should(Mockito.never()).existsById(ArgumentMatchers.anyString());
+    }
+
+    @Test
+    void shouldThrowConflictWhenStockIsInsufficient() {
+        // given
+        BDDMockito.given(productRepository.reserveStock("123456", 5)).willReturn(null);
+        BDDMockito.given(productRepository.existsById("123456")).willReturn(true);
+        // when & then
+        Assertions.assertThatThrownBy(() -> productService.reserveStock("123456", 5))
+                .isInstanceOf(ConflictException.class)
+                .hasMessage("Insufficient stock to reserve 5 of product: 123456");
+    }
+
+    @Test
+    void shouldThrowInvalidRequestWhenReservingUnknownProduct() {
+        // given
+        BDDMockito.given(productRepository.reserveStock("123456", 5)).willReturn(null);
+        BDDMockito.given(productRepository.existsById("123456")).willReturn(false);
+        // when & then
+        Assertions.assertThatThrownBy(() -> productService.reserveStock("123456", 5))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Product not found with this id: 123456");
+    }
+
+    @Test
+    void shouldReturnNewStockWhenReleasing() {
+        // mock
+        Product product = Product.builder().id(UUID.randomUUID().toString()).stock(12).build();
+        // given
+        BDDMockito.given(productRepository.releaseStock(product.getId(), 2)).willReturn(product);
+        // when
+        StockLevel stockLevel = productService.releaseStock(product.getId(), 2);
+        // then or assertions
+        Assertions.assertThat(stockLevel.getStock()).isEqualTo(12);
+        BDDMockito.then(categorySummaryService).should().stockMoved(product, 2);
+    }
+
     private Product populateValidProduct(ProductRequest productRequest) {
         return Product.builder()
                 .id(UUID.randomUUID().toString())
@@ -0,0 +1,174 @@
+package com.moh.yehia.testing.service;
+
+import com.moh.yehia.testing.exception.ConflictException;
+import com.moh.yehia.testing.exception.InvalidRequestException;
+import com.moh.yehia.testing.model.Product;
+import com.moh.yehia.testing.model.ProductRequest;
+import com.moh.yehia.testing.model.ProductSuggestion;
+import com.moh.yehia.testing.model.ProductUpdateRequest;
+import com.moh.yehia.testing.repository.reactive.ReactiveProductRepository;
+import com.moh.yehia.testing.service.design.CategoryIdRegistry;
+import com.moh.yehia.testing.service.design.CategorySummaryService;
+import com.moh.yehia.testing.service.design.IdGenerator;
+import com.moh.yehia.testing.service.design.ProductNameIndex;
+import com.moh.yehia.testing.service.impl.InMemoryProductNameIndex;
+import com.moh.yehia.testing.service.impl.ReactiveProductServiceImpl;
+import com.moh.yehia.testing.service.impl.ObjectIdGenerator;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductServiceTest {
+    @Mock
+    private ReactiveProductRepository productRepository;
+
+    @Spy
+    private IdGenerator idGenerator = new ObjectIdGenerator();
+
+    @Spy
+    private ProductNameIndex productNameIndex = new InMemoryProductNameIndex(null, Runnable::run);
+
+    @Mock
+    private CategorySummaryService categorySummaryService;
+
+    @Mock
+    private CategoryIdRegistry categoryIdRegistry;
+
+    @InjectMocks
+    private ReactiveProductServiceImpl productService;
+
+    @Test
+    void shouldReturnPageWithNextCursorWhenMoreProductsExist() {
+        // mock
+        Product first = Product.builder().id(UUID.randomUUID().toString()).build();
+        Product second = Product.builder().id(UUID.randomUUID().toString()).build();
+        // given
+        BDDMockito.given(productRepository.findAllByOrderByIdAsc(PageRequest.ofSize(2))).willReturn(Flux.just(first, second));
+        // when & assertions
+        StepVerifier.create(productService.findPage(1, null))
+                .assertNext(page -> {
+                    Assertions.assertThat(page.getItems()).containsExactly(first);
+                    Assertions.assertThat(page.getNextCursor()).isNotBlank();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldSignalErrorWhenPageLimitIsOutOfRange() {
+        StepVerifier.create(productService.findPage(0, null))
+                .expectError(InvalidRequestException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldSaveProductWithGeneratedId() {
+        // mock
+        ProductRequest productRequest = new ProductRequest("name", "description", BigDecimal.TEN, UUID.randomUUID().toString(), 3);
+        // given
+        BDDMockito.given(categoryIdRegistry.exists(productRequest.getCategoryId())).willReturn(true);
+        BDDMockito.given(productRepository.save(ArgumentMatchers.any(Product.class))).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        // when & assertions
+        StepVerifier.create(productService.save(productRequest))
+                .assertNext(product -> {
+                    Assertions.assertThat(product.getId()).isNotBlank();
+                    Assertions.assertThat(product.getName()).isEqualTo(productRequest.getName());
+                    Assertions.assertThat(product.getStock()).isEqualTo(productRequest.getStock());
+                    Assertions.assertThat(productNameIndex.suggest("nam", 10)).extracting(ProductSuggestion::getProductId).containsExactly(product.getId());
+                    BDDMockito.then(categorySummaryService).should().productsAdded(List.of(product));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldRejectProductOfUnknownCategory() {
+        // mock
+        ProductRequest productRequest = new ProductRequest("name", "description", BigDecimal.TEN, UUID.randomUUID().toString(), 3);
+        // given
+        BDDMockito.given(categoryIdRegistry.exists(productRequest.getCategoryId())).willReturn(false);
+        // when & assertions
+        StepVerifier.create(productService.save(productRequest))
+                .expectErrorSatisfies(error -> Assertions.assertThat(error)
+                        .isInstanceOf(InvalidRequestException.class)
+                        .hasMessage("Category not found with this id: " + productRequest.getCategoryId()))
+                .verify();
+        BDDMockito.then(productRepository).should(Mockito.never()).save(ArgumentMatchers.any(Product.class));
+        BDDMockito.then(categorySummaryService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void shouldUpdateOnlyGivenFieldsAgainstTheReadVersion() {
+        // mock
+        Product previous = Product.builder().id(UUID.randomUUID().toString()).name("old name").description("description").price(BigDecimal.ONE).stock(7).version(3L).build();
+        ProductUpdateRequest productUpdateRequest = ProductUpdateRequest.builder().name("new name").version(3L).build();
+        // given
+        BDDMockito.given(productRepository.updateFields(previous.getId(), 3L, Map.of("name", "new name"))).willReturn(Mono.just(previous));
+        // when & assertions
+        StepVerifier.create(productService.update(previous.getId(), productUpdateRequest))
+                .assertNext(product -> {
+                    Assertions.assertThat(product.getName()).isEqualTo("new name");
+                    Assertions.assertThat(product.getDescription()).isEqualTo(previous.getDescription());
+                    Assertions.assertThat(product.getStock()).isEqualTo(7);
+                    Assertions.assertThat(product.getVersion()).isEqualTo(4L);
+                    BDDMockito.then(categorySummaryService).should().productChanged(previous, product);
+                })
+                .verifyComplete();
+        BDDMockito.then(categoryIdRegistry).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void shouldSignalConflictWhenProductVersionHasChanged() {
+        // mock
+        String productId = UUID.randomUUID().toString();
+        ProductUpdateRequest productUpdateRequest = ProductUpdateRequest.builder().price(BigDecimal.TEN).version(3L).build();
+        // given
+        BDDMockito.given(productRepository.updateFields(productId, 3L, Map.of("price", BigDecimal.TEN))).willReturn(Mono.empty());
+        BDDMockito.given(productRepository.existsById(productId)).willReturn(Mono.just(true));
+        // when & assertions
+        StepVerifier.create(productService.update(productId, productUpdateRequest))
+                .expectErrorSatisfies(error -> Assertions.assertThat(error)
+                        .isInstanceOf(ConflictException.class)
+                        .hasMessage("Product " + productId + " was modified concurrently, expected version 3"))
+                .verify();
+        BDDMockito.then(categorySummaryService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void shouldSignalInvalidRequestWhenUpdatedProductDoesNotExist() {
+        // mock
+        ProductUpdateRequest productUpdateRequest = ProductUpdateRequest.builder().name("name").build();
+        // given
+        BDDMockito.given(productRepository.updateFields("123456", null, Map.of("name", "name"))).willReturn(Mono.empty());
+        BDDMockito.given(productRepository.existsById("123456")).willReturn(Mono.just(false));
+        // when & assertions
+        StepVerifier.create(productService.update("123456", productUpdateRequest))
+                .expectErrorSatisfies(error -> Assertions.assertThat(error)
+                        .isInstanceOf(InvalidRequestException.class)
+                        .hasMessage("Product not found with this id: 123456"))
+                .verify();
+    }
+
+    @Test
+    void shouldRejectUpdateWithoutChangedFields() {
+        StepVerifier.create(productService.update("123456", ProductUpdateRequest.builder().version(1L).build()))
+                .expectError(InvalidRequestException.class)
+                .verify();
+        BDDMockito.then(productRepository).shouldHaveNoInteractions();
+    }
+}